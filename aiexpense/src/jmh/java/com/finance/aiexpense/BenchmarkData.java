@@ -0,0 +1,102 @@
+package com.finance.aiexpense;
+
+import com.finance.aiexpense.dto.CategorySpendingDTO;
+import com.finance.aiexpense.dto.TransactionDTO;
+import com.finance.aiexpense.entity.Transaction;
+import com.finance.aiexpense.entity.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic fixture data shared by the benchmarks, shaped like a real user's history:
+ * mostly recognisable merchants, a tail of descriptions that fall through to "Others".
+ */
+public final class BenchmarkData {
+
+    private static final String[] DESCRIPTIONS = {
+            "Uber ride to office", "Ola cab airport", "Swiggy dinner order", "Zomato lunch",
+            "Cafe Coffee Day", "Amazon order electronics", "Flipkart sale", "Myntra shopping",
+            "DMart weekly grocery", "Big Bazaar vegetables", "Netflix subscription",
+            "Spotify premium", "Electricity bill BESCOM", "Mobile recharge Jio",
+            "Apollo pharmacy medicine", "Doctor consultation", "Udemy course", "School fees",
+            "Transfer to Rahul", "ATM withdrawal", "Rent payment", "Gym membership"
+    };
+
+    private static final String[] CATEGORIES = {
+            "Food", "Travel", "Groceries", "Shopping", "Entertainment",
+            "Utilities", "Healthcare", "Education", "Others"
+    };
+
+    private static final String[] PAYMENT_MODES = {"UPI", "Credit Card", "Debit Card", "Cash"};
+
+    private BenchmarkData() {
+    }
+
+    public static User user() {
+        return User.builder().id(1L).email("bench@example.com").name("Bench User").build();
+    }
+
+    public static List<Transaction> transactions(int count) {
+        User user = user();
+        Random random = new Random(42);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transactions.add(Transaction.builder()
+                    .id((long) i + 1)
+                    .user(user)
+                    .description(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)] + " #" + i)
+                    .amount(Math.round((10 + random.nextDouble() * 4990) * 100) / 100.0)
+                    .date(start.plusDays(random.nextInt(365)))
+                    .category(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                    .paymentMode(PAYMENT_MODES[random.nextInt(PAYMENT_MODES.length)])
+                    .build());
+        }
+        return transactions;
+    }
+
+    public static List<TransactionDTO> transactionDtos(int count) {
+        List<TransactionDTO> dtos = new ArrayList<>(count);
+        for (Transaction t : transactions(count)) {
+            dtos.add(new TransactionDTO(t.getId(), t.getDescription(), t.getAmount(),
+                    t.getDate(), t.getCategory(), t.getPaymentMode()));
+        }
+        return dtos;
+    }
+
+    /** What the monthly rollup hands back for a user with these transactions. */
+    public static List<CategorySpendingDTO> categoryTotals(List<TransactionDTO> transactions) {
+        Map<String, CategorySpendingDTO> totals = new LinkedHashMap<>();
+        for (TransactionDTO t : transactions) {
+            CategorySpendingDTO total = totals.computeIfAbsent(t.getCategory(),
+                    c -> new CategorySpendingDTO(c, 0.0, 0L));
+            total.setTotalAmount(total.getTotalAmount() + t.getAmount());
+            total.setTransactionCount(total.getTransactionCount() + 1);
+        }
+        return new ArrayList<>(totals.values());
+    }
+
+    /** A Gemini generateContent response whose text categorises every transaction. */
+    public static String geminiResponse(List<TransactionDTO> transactions) {
+        StringBuilder text = new StringBuilder("{\"categorizedTransactions\": [");
+        for (int i = 0; i < transactions.size(); i++) {
+            TransactionDTO t = transactions.get(i);
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append("{\"transaction\": \"").append(t.getDescription()).append(' ').append(t.getAmount())
+                    .append("\", \"category\": \"").append(t.getCategory()).append("\"}");
+        }
+        text.append("], \"summary\": \"Spending is concentrated in a few categories.\"}");
+
+        String escaped = text.toString().replace("\\", "\\\\").replace("\"", "\\\"");
+        return "{\"candidates\": [{\"content\": {\"parts\": [{\"text\": \"" + escaped + "\"}], "
+                + "\"role\": \"model\"}, \"finishReason\": \"STOP\", \"index\": 0}], "
+                + "\"usageMetadata\": {\"promptTokenCount\": 1, \"candidatesTokenCount\": 1}}";
+    }
+}
@@ -0,0 +1,100 @@
+package com.finance.aiexpense.cache;
+
+import com.finance.aiexpense.BenchmarkData;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode time for a cached {@code transactions} value of {@code rows} DTOs, per format and
+ * compression threshold, plus the encoded size as the {@code bytes} counter of {@code encodedSize}.
+ * <p>
+ * {@code GENERIC_JSON} is the serializer RedisCacheConfig used before the codecs:
+ * GenericJackson2JsonRedisSerializer, given only the JavaTimeModule it needs to write the DTO dates.
+ * With threshold -1 it is that exact wire format; with a threshold it is gzipped the way the codecs
+ * are, which separates what compression buys from what Smile buys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int rows;
+
+    @Param({"GENERIC_JSON", "JSON", "SMILE"})
+    private String format;
+
+    @Param({"-1", "1024"})
+    private int compressionThreshold;
+
+    private RedisSerializer<Object> serializer;
+    private Object value;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        serializer = "GENERIC_JSON".equals(format)
+                ? genericJson(compressionThreshold)
+                : CacheCodec.valueOf(format).serializer(compressionThreshold);
+        value = BenchmarkData.transactionDtos(rows);
+        encoded = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+
+    // One encode per trial; its time is meaningless, the bytes counter is the result
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1, batchSize = 1)
+    public void encodedSize(EncodedSize size) {
+        size.bytes = serializer.serialize(value).length;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSize {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    private static RedisSerializer<Object> genericJson(int compressionThreshold) {
+        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+        serializer.configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+        return compressionThreshold < 0
+                ? serializer
+                : new CompressingRedisSerializer(serializer, compressionThreshold);
+    }
+}
@@ -0,0 +1,98 @@
+package com.finance.aiexpense.categorization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finance.aiexpense.BenchmarkData;
+import com.finance.aiexpense.dto.TransactionDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fallback categorization throughput over a million descriptions: the compiled automaton vs the
+ * lowercase-then-contains chain AIService.predictCategory used to run. Scores are descriptions/ms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CategoryMatcherBenchmark {
+
+    private static final int DESCRIPTIONS = 1_000_000;
+
+    private CategoryMatcher matcher;
+    private String[] descriptions;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/categorization-rules.json")) {
+            matcher = CategoryMatcher.compile(new ObjectMapper().readValue(in, CategoryRuleSet.class));
+        }
+        List<TransactionDTO> transactions = BenchmarkData.transactionDtos(DESCRIPTIONS);
+        descriptions = new String[DESCRIPTIONS];
+        for (int i = 0; i < DESCRIPTIONS; i++) {
+            descriptions[i] = transactions.get(i).getDescription();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DESCRIPTIONS)
+    public void automaton(Blackhole blackhole) {
+        for (String description : descriptions) {
+            blackhole.consume(matcher.match(description));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DESCRIPTIONS)
+    public void legacyContainsChain(Blackhole blackhole) {
+        for (String description : descriptions) {
+            blackhole.consume(legacyPredictCategory(description));
+        }
+    }
+
+    // Verbatim copy of the pre-automaton AIService.predictCategory
+    private static String legacyPredictCategory(String description) {
+        String lower = description.toLowerCase();
+        if (lower.contains("uber") || lower.contains("ola") || lower.contains("taxi") ||
+                lower.contains("bus") || lower.contains("train"))
+            return "Travel";
+        if (lower.contains("zomato") || lower.contains("swiggy") || lower.contains("restaurant") ||
+                lower.contains("food") || lower.contains("cafe") || lower.contains("pizza"))
+            return "Food";
+        if (lower.contains("amazon") || lower.contains("flipkart") || lower.contains("myntra") ||
+                lower.contains("shopping"))
+            return "Shopping";
+        if (lower.contains("bazaar") || lower.contains("grocery") || lower.contains("supermarket") ||
+                lower.contains("vegetables") || lower.contains("dmart"))
+            return "Groceries";
+        if (lower.contains("netflix") || lower.contains("spotify") || lower.contains("prime") ||
+                lower.contains("movie") || lower.contains("game"))
+            return "Entertainment";
+        if (lower.contains("electricity") || lower.contains("water") || lower.contains("gas") ||
+                lower.contains("bill") || lower.contains("recharge"))
+            return "Utilities";
+        if (lower.contains("hospital") || lower.contains("doctor") || lower.contains("medicine") ||
+                lower.contains("pharmacy") || lower.contains("clinic"))
+            return "Healthcare";
+        if (lower.contains("school") || lower.contains("course") || lower.contains("book") ||
+                lower.contains("tuition") || lower.contains("education"))
+            return "Education";
+        return "Others";
+    }
+}
@@ -0,0 +1,105 @@
+package com.finance.aiexpense.security;
+
+import com.finance.aiexpense.BenchmarkData;
+import com.finance.aiexpense.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token work done by JwtAuthenticationFilter. Token size does not depend on how many
+ * transactions a user has, so this one is not parameterised by rows.
+ * <p>
+ * {@code filterLegacy} replays what the filter used to do: three full parses, each rebuilding the
+ * key and parser. {@code filterFirstSeen} is one parse with the prebuilt parser (a cache miss), and
+ * {@code filterCached} is the steady state for a token already seen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    // 256-bit test key, base64 encoded like jwt.secret
+    private static final String SECRET = "ZmluYW5jZS1haWV4cGVuc2UtYmVuY2htYXJrLXNlY3JldC1rZXktMzItYnl0ZXM=";
+
+    private JwtService jwtService;
+    private JwtParser prebuiltParser;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtService, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 604_800_000L);
+        jwtService.init();
+        prebuiltParser = Jwts.parser().verifyWith(legacyKey()).build();
+        user = BenchmarkData.user();
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean filterLegacy() {
+        String username = legacyParse().getSubject();
+        return username.equals(user.getUsername())
+                && legacyParse().getSubject().equals(user.getUsername())
+                && !legacyParse().getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean filterFirstSeen() {
+        Claims claims = prebuiltParser.parseSignedClaims(token).getPayload();
+        return jwtService.isTokenValid(claims, user);
+    }
+
+    @Benchmark
+    public boolean filterCached() {
+        Claims claims = jwtService.extractAllClaims(token);
+        return jwtService.isTokenValid(claims, user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, user);
+    }
+
+    // Verbatim shape of the pre-cache JwtService.extractAllClaims/getSignInKey
+    private Claims legacyParse() {
+        return Jwts.parser()
+                .verifyWith(legacyKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    private SecretKey legacyKey() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+    }
+}
@@ -0,0 +1,80 @@
+package com.finance.aiexpense.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finance.aiexpense.BenchmarkData;
+import com.finance.aiexpense.dto.AIAnalysisResponse;
+import com.finance.aiexpense.dto.CategorySpendingDTO;
+import com.finance.aiexpense.dto.TransactionDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CPU-only parts of AI analysis (keyword categorization, fallback analysis, chunking and
+ * context building) for a user with {@code rows} transactions.
+ * buildTransactionContext works off the monthly rollup, so its input is the per-category totals
+ * those rows collapse into.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AIServiceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int rows;
+
+    private AIService aiService;
+    private TransactionCategorizer categorizer;
+    private BatchCategorizationService batchCategorizationService;
+    private List<TransactionDTO> transactions;
+    private List<CategorySpendingDTO> categoryTotals;
+
+    @Setup
+    public void setUp() {
+        categorizer = new TransactionCategorizer(new DefaultResourceLoader(), new ObjectMapper());
+        categorizer.init();
+        // None of the benchmarked methods reach Gemini or the rollup
+        batchCategorizationService = new BatchCategorizationService(null, categorizer, new ObjectMapper());
+        aiService = new AIService(null, null, batchCategorizationService);
+        transactions = BenchmarkData.transactionDtos(rows);
+        categoryTotals = BenchmarkData.categoryTotals(transactions);
+    }
+
+    @Benchmark
+    public void keywordCategorization(Blackhole blackhole) {
+        for (TransactionDTO transaction : transactions) {
+            blackhole.consume(categorizer.categorize(transaction.getDescription()));
+        }
+    }
+
+    @Benchmark
+    public String buildTransactionContext() {
+        return aiService.buildTransactionContext(categoryTotals);
+    }
+
+    @Benchmark
+    public AIAnalysisResponse fallbackAnalysis() {
+        return batchCategorizationService.fallbackAnalysis(transactions);
+    }
+
+    @Benchmark
+    public List<List<TransactionDTO>> chunk() {
+        return batchCategorizationService.chunk(transactions);
+    }
+}
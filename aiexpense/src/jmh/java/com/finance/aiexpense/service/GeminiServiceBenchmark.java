@@ -0,0 +1,62 @@
+package com.finance.aiexpense.service;
+
+import com.finance.aiexpense.BenchmarkData;
+import com.finance.aiexpense.config.GeminiConfig;
+import com.finance.aiexpense.dto.TransactionDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Request building and response parsing around the Gemini call, with the prompt and the
+ * response text sized by the number of transactions being analyzed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeminiServiceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int rows;
+
+    private GeminiService geminiService;
+    private String prompt;
+    private String responseBody;
+
+    @Setup
+    public void setUp() {
+        geminiService = new GeminiService(new GeminiConfig(), new RestTemplate(), Runnable::run);
+        List<TransactionDTO> transactions = BenchmarkData.transactionDtos(rows);
+        prompt = transactions.stream()
+                .map(t -> String.format("%s: ₹%.2f", t.getDescription(), t.getAmount()))
+                .collect(Collectors.joining("\n", "Analyze and categorize these financial transactions.\n\n", ""));
+        responseBody = BenchmarkData.geminiResponse(transactions);
+    }
+
+    @Benchmark
+    public Map<String, Object> buildRequest() {
+        return geminiService.buildRequest(prompt);
+    }
+
+    @Benchmark
+    public String extractTextFromResponse() {
+        return geminiService.extractTextFromResponse(responseBody);
+    }
+}
@@ -0,0 +1,94 @@
+package com.finance.aiexpense.service;
+
+import com.finance.aiexpense.BenchmarkData;
+import com.finance.aiexpense.dto.TransactionDTO;
+import com.finance.aiexpense.entity.Transaction;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Constructor;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Old vs new read-path mapping for a list endpoint of {@code rows} transactions.
+ * <ul>
+ *   <li>{@code modelMapper} - what convertToDTO used to do per row</li>
+ *   <li>{@code constructorProjection} - Hibernate's constructor expression, which instantiates
+ *       the DTO reflectively from the selected columns</li>
+ *   <li>{@code directConstructor} - lower bound, plain {@code new}</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionMappingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int rows;
+
+    private ModelMapper modelMapper;
+    private Constructor<TransactionDTO> projectionConstructor;
+    private List<Transaction> entities;
+    private List<Object[]> tuples;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        modelMapper = new ModelMapper();
+        projectionConstructor = TransactionDTO.class.getConstructor(
+                Long.class, String.class, Double.class, LocalDate.class, String.class, String.class);
+
+        entities = BenchmarkData.transactions(rows);
+        tuples = new ArrayList<>(rows);
+        for (Transaction transaction : entities) {
+            tuples.add(new Object[]{
+                    transaction.getId(), transaction.getDescription(), transaction.getAmount(),
+                    transaction.getDate(), transaction.getCategory(), transaction.getPaymentMode()
+            });
+        }
+    }
+
+    @Benchmark
+    public List<TransactionDTO> modelMapper() {
+        List<TransactionDTO> result = new ArrayList<>(rows);
+        for (Transaction transaction : entities) {
+            result.add(modelMapper.map(transaction, TransactionDTO.class));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<TransactionDTO> constructorProjection() throws ReflectiveOperationException {
+        List<TransactionDTO> result = new ArrayList<>(rows);
+        for (Object[] tuple : tuples) {
+            result.add(projectionConstructor.newInstance(tuple));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<TransactionDTO> directConstructor() {
+        List<TransactionDTO> result = new ArrayList<>(rows);
+        for (Object[] tuple : tuples) {
+            result.add(new TransactionDTO(
+                    (Long) tuple[0], (String) tuple[1], (Double) tuple[2],
+                    (LocalDate) tuple[3], (String) tuple[4], (String) tuple[5]));
+        }
+        return result;
+    }
+}
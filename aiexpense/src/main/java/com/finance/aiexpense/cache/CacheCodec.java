@@ -0,0 +1,66 @@
+package com.finance.aiexpense.cache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Wire formats for Redis cache values, selected with {@code app.cache.codec}.
+ * <p>
+ * Both formats embed the same {@code @class} type hints the old GenericJackson2JsonRedisSerializer
+ * did, so any cacheable value round-trips. SMILE is binary Jackson with shared property names and
+ * string values, which turns the per-element {@code @class}, field names and repeated categories
+ * into one-byte back references.
+ */
+public enum CacheCodec {
+
+    JSON(JsonFactory::new),
+    SMILE(() -> SmileFactory.builder()
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+            .build());
+
+    private final Supplier<JsonFactory> factory;
+
+    CacheCodec(Supplier<JsonFactory> factory) {
+        this.factory = factory;
+    }
+
+    public String getPrefix() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Serializer for this format. Values whose encoding exceeds {@code compressionThreshold} bytes are
+     * gzipped; a negative threshold turns compression off.
+     */
+    public RedisSerializer<Object> serializer(int compressionThreshold) {
+        return new CompressingRedisSerializer(new JacksonValueSerializer(objectMapper()), compressionThreshold);
+    }
+
+    ObjectMapper objectMapper() {
+        ObjectMapper mapper = new ObjectMapper(factory.get());
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        // Only our own types and JDK value/collection types may be named in a cached payload
+        mapper.activateDefaultTyping(BasicPolymorphicTypeValidator.builder()
+                        .allowIfSubType("com.finance.aiexpense.")
+                        .allowIfSubType("java.util.")
+                        .allowIfSubType("java.time.")
+                        .allowIfSubType("java.lang.")
+                        .allowIfSubType("java.math.")
+                        .build(),
+                ObjectMapper.DefaultTyping.EVERYTHING, JsonTypeInfo.As.PROPERTY);
+        return mapper;
+    }
+}
@@ -0,0 +1,8 @@
+package com.finance.aiexpense.cache;
+
+/**
+ * What {@link RefreshAheadCache} stores in the underlying cache: the value, how long it took to
+ * compute, and when it stops being fresh. The underlying entry lives a stale window longer.
+ */
+public record CacheEntry(Object value, long loadMillis, long freshUntil) {
+}
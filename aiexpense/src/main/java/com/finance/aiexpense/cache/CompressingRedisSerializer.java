@@ -0,0 +1,81 @@
+package com.finance.aiexpense.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Prefixes each payload with a one-byte marker and gzips payloads larger than {@code threshold}
+ * bytes. Small values (single DTOs, short stats lists) stay uncompressed, where gzip's header and
+ * CPU would cost more than it saves. Changing the threshold never breaks reads of existing entries.
+ */
+class CompressingRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte PLAIN = 0;
+    static final byte GZIP = 1;
+
+    private final RedisSerializer<Object> delegate;
+    private final int threshold;
+
+    CompressingRedisSerializer(RedisSerializer<Object> delegate, int threshold) {
+        this.delegate = delegate;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] encoded = delegate.serialize(value);
+        if (encoded == null || encoded.length == 0) {
+            return encoded;
+        }
+        if (threshold >= 0 && encoded.length > threshold) {
+            return withMarker(GZIP, gzip(encoded));
+        }
+        return withMarker(PLAIN, encoded);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        byte[] payload = Arrays.copyOfRange(bytes, 1, bytes.length);
+        return switch (bytes[0]) {
+            case PLAIN -> delegate.deserialize(payload);
+            case GZIP -> delegate.deserialize(gunzip(payload));
+            default -> throw new SerializationException("Unknown cache value marker: " + bytes[0]);
+        };
+    }
+
+    private static byte[] withMarker(byte marker, byte[] payload) {
+        byte[] out = new byte[payload.length + 1];
+        out[0] = marker;
+        System.arraycopy(payload, 0, out, 1, payload.length);
+        return out;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new SerializationException("Could not compress cache value", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] bytes) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new SerializationException("Could not decompress cache value", e);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.finance.aiexpense.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Stampede protection for {@code @Cacheable(sync = true)} methods.
+ * <p>
+ * A miss is loaded by one caller per key; concurrent callers for the same key wait for that load.
+ * A hit is refreshed early with probability rising towards its TTL (XFetch: refresh when
+ * {@code now - loadMillis * beta * ln(rand) >= freshUntil}), so expensive keys are recomputed in
+ * the background by one refresher while readers keep getting the current value. Entries past their
+ * TTL are still served, and refreshed, until the underlying cache drops them a stale window later.
+ * <p>
+ * Evictions and puts cancel an in-flight load's write-back, so a refresh started before a
+ * transaction write cannot restore pre-write data.
+ */
+@Slf4j
+public class RefreshAheadCache implements Cache {
+
+    private final Cache delegate;
+    private final Duration ttl;
+    private final double beta;
+    private final Executor executor;
+    private final LongSupplier clock;
+    private final DoubleSupplier random;
+
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter refreshStarted;
+    private final Counter refreshFailed;
+    private final Counter refreshRejected;
+
+    RefreshAheadCache(Cache delegate, Duration ttl, double beta, Executor executor, MeterRegistry meterRegistry) {
+        this(delegate, ttl, beta, executor, meterRegistry,
+                System::currentTimeMillis, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    RefreshAheadCache(Cache delegate, Duration ttl, double beta, Executor executor, MeterRegistry meterRegistry,
+                      LongSupplier clock, DoubleSupplier random) {
+        this.delegate = delegate;
+        this.ttl = ttl;
+        this.beta = beta;
+        this.executor = executor;
+        this.clock = clock;
+        this.random = random;
+        this.refreshStarted = refreshCounter(meterRegistry, delegate.getName(), "started");
+        this.refreshFailed = refreshCounter(meterRegistry, delegate.getName(), "failed");
+        this.refreshRejected = refreshCounter(meterRegistry, delegate.getName(), "rejected");
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        CacheEntry entry = entry(key);
+        return entry != null ? new SimpleValueWrapper(entry.value()) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        CacheEntry entry = entry(key);
+        if (entry == null) {
+            return null;
+        }
+        if (type != null && !type.isInstance(entry.value())) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + entry.value());
+        }
+        return (T) entry.value();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        CacheEntry entry = entry(key);
+        if (entry != null) {
+            if (shouldRefresh(entry)) {
+                refreshInBackground(key, valueLoader);
+            }
+            return (T) entry.value();
+        }
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, load);
+        if (leader != null) {
+            return (T) await(key, valueLoader, leader);
+        }
+        // Another caller may have stored it between our miss and taking the lead
+        entry = entry(key);
+        if (entry != null) {
+            inFlight.remove(key, load);
+            load.complete(entry.value());
+            return (T) entry.value();
+        }
+        load(key, valueLoader, load);
+        return (T) await(key, valueLoader, load);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        inFlight.remove(key);
+        if (value == null) {
+            delegate.evict(key);
+            return;
+        }
+        delegate.put(key, new CacheEntry(value, 0, clock.getAsLong() + ttl.toMillis()));
+    }
+
+    @Override
+    public void evict(Object key) {
+        inFlight.remove(key);
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        inFlight.remove(key);
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        inFlight.clear();
+        delegate.clear();
+    }
+
+    boolean shouldRefresh(CacheEntry entry) {
+        double earlier = entry.loadMillis() * beta * -Math.log(random.getAsDouble());
+        return clock.getAsLong() + earlier >= entry.freshUntil();
+    }
+
+    private void refreshInBackground(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> refresh = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, refresh) != null) {
+            return;
+        }
+        try {
+            executor.execute(() -> load(key, valueLoader, refresh));
+            refreshStarted.increment();
+        } catch (RejectedExecutionException e) {
+            // Readers keep the current value; a later read tries again
+            inFlight.remove(key, refresh);
+            refresh.complete(null);
+            refreshRejected.increment();
+        }
+    }
+
+    private void load(Object key, Callable<?> valueLoader, CompletableFuture<Object> load) {
+        long start = clock.getAsLong();
+        try {
+            Object value = valueLoader.call();
+            long now = clock.getAsLong();
+            // Skip the write-back if an eviction or put superseded this load
+            if (inFlight.remove(key, load) && value != null) {
+                delegate.put(key, new CacheEntry(value, now - start, now + ttl.toMillis()));
+            }
+            load.complete(value);
+        } catch (Exception e) {
+            inFlight.remove(key, load);
+            refreshFailed.increment();
+            log.warn("Loading {} for cache '{}' failed: {}", key, getName(), e.getMessage());
+            load.completeExceptionally(e);
+        }
+    }
+
+    private static Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    private CacheEntry entry(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper == null || wrapper.get() == null) {
+            return null;
+        }
+        if (wrapper.get() instanceof CacheEntry entry) {
+            return entry;
+        }
+        // Written by something other than this cache; treat as fresh
+        return new CacheEntry(wrapper.get(), 0, Long.MAX_VALUE);
+    }
+
+    private static Counter refreshCounter(MeterRegistry meterRegistry, String cacheName, String result) {
+        return Counter.builder("cache.refresh")
+                .description("Background refreshes and failed loads of refresh-ahead caches")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
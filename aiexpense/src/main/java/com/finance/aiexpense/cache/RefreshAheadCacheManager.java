@@ -0,0 +1,68 @@
+package com.finance.aiexpense.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Wraps the {@code refreshAhead} caches of {@code delegate} in a {@link RefreshAheadCache} with the
+ * cache's TTL; every other cache is returned as is. The delegate must keep those caches' entries a
+ * stale window longer than the TTL given here.
+ */
+public class RefreshAheadCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final Map<String, Duration> ttls;
+    private final Duration defaultTtl;
+    private final Set<String> refreshAhead;
+    private final double beta;
+    private final Executor executor;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, RefreshAheadCache> caches = new ConcurrentHashMap<>();
+
+    public RefreshAheadCacheManager(CacheManager delegate,
+                                    Map<String, Duration> ttls,
+                                    Duration defaultTtl,
+                                    Set<String> refreshAhead,
+                                    double beta,
+                                    Executor executor,
+                                    MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.ttls = ttls;
+        this.defaultTtl = defaultTtl;
+        this.refreshAhead = refreshAhead;
+        this.beta = beta;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        if (!refreshAhead.contains(name)) {
+            return delegate.getCache(name);
+        }
+        RefreshAheadCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new RefreshAheadCache(target,
+                ttls.getOrDefault(n, defaultTtl), beta, executor, meterRegistry));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
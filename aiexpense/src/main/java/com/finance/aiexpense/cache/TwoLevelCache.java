@@ -0,0 +1,210 @@
+package com.finance.aiexpense.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A size-bounded local Caffeine tier (L1) in front of a shared cache (L2, Redis in prod).
+ * <p>
+ * Reads try L1 first and fill it from L2. Writes, evictions and clears go to L2 and L1, then are
+ * announced through {@link TwoLevelCacheManager} so other replicas drop their L1 copy and re-read L2.
+ * L1 entries are keyed by {@code String.valueOf(key)}, the same form Redis uses, so invalidation
+ * messages can name them. Values are held by reference, as the dev cache manager always did.
+ * <p>
+ * Every invalidation bumps a version for its key after L2 has changed, and an L1 fill only lands if
+ * the version is still the one seen before the L2 read. A read racing a write therefore returns the
+ * old value once but never parks it in L1 for the rest of the TTL. Versions are striped by key hash,
+ * so a write to one key can make a concurrent fill of another skip L1; that only costs a miss.
+ */
+public class TwoLevelCache implements Cache {
+
+    private static final int VERSION_STRIPES = 256;
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final TwoLevelCacheManager manager;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    private final Timer localHits;
+    private final Timer localMisses;
+    private final Timer remoteHits;
+    private final Timer remoteMisses;
+
+    TwoLevelCache(String name,
+                  com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                  Cache remote,
+                  TwoLevelCacheManager manager,
+                  MeterRegistry meterRegistry) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.manager = manager;
+        this.localHits = tierTimer(meterRegistry, name, "l1", "hit");
+        this.localMisses = tierTimer(meterRegistry, name, "l1", "miss");
+        this.remoteHits = tierTimer(meterRegistry, name, "l2", "hit");
+        this.remoteMisses = tierTimer(meterRegistry, name, "l2", "miss");
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = String.valueOf(key);
+        long start = System.nanoTime();
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            localHits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return new SimpleValueWrapper(value);
+        }
+        localMisses.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        long version = version(localKey);
+        start = System.nanoTime();
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper == null || wrapper.get() == null) {
+            remoteMisses.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return null;
+        }
+        remoteHits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        fillLocal(localKey, wrapper.get(), version);
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        if (type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        String localKey = String.valueOf(key);
+        long version = version(localKey);
+        // L2 serializes concurrent loads of the same key where it can (RedisCache locks per cache)
+        T value = remote.get(key, valueLoader);
+        if (value != null) {
+            fillLocal(localKey, value, version);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            // Neither tier stores nulls; treat as an eviction like RedisCache does with nulls disabled
+            evict(key);
+            return;
+        }
+        String localKey = String.valueOf(key);
+        remote.put(key, value);
+        bumpVersion(localKey);
+        local.put(localKey, value);
+        manager.publishEvict(name, localKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictIfPresent(key);
+    }
+
+    /**
+     * Returns whether either tier held the key.
+     */
+    @Override
+    public boolean evictIfPresent(Object key) {
+        String localKey = String.valueOf(key);
+        boolean remotePresent = manager.evictRemote(remote, key);
+        bumpVersion(localKey);
+        boolean localPresent = local.asMap().remove(localKey) != null;
+        manager.publishEvict(name, localKey);
+        return remotePresent || localPresent;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        bumpAllVersions();
+        local.invalidateAll();
+        manager.publishClear(name);
+    }
+
+    void evictLocal(String key) {
+        bumpVersion(key);
+        local.invalidate(key);
+    }
+
+    void clearLocal() {
+        bumpAllVersions();
+        local.invalidateAll();
+    }
+
+    long localSize() {
+        return local.estimatedSize();
+    }
+
+    /**
+     * Caches an L2 value locally unless the key was invalidated since {@code version} was read.
+     * The check runs inside {@code compute}, so an invalidation either bumps the version first and
+     * the fill is skipped, or removes the entry after the fill has landed.
+     */
+    private void fillLocal(String localKey, Object value, long version) {
+        local.asMap().compute(localKey, (k, current) -> version(k) == version ? value : current);
+    }
+
+    private long version(String localKey) {
+        return versions.get(stripe(localKey));
+    }
+
+    // Called after L2 has changed, so a reader seeing the new version also reads the new L2 state
+    private void bumpVersion(String localKey) {
+        versions.incrementAndGet(stripe(localKey));
+    }
+
+    private void bumpAllVersions() {
+        for (int i = 0; i < VERSION_STRIPES; i++) {
+            versions.incrementAndGet(i);
+        }
+    }
+
+    private static int stripe(String localKey) {
+        return localKey.hashCode() & (VERSION_STRIPES - 1);
+    }
+
+    private static Timer tierTimer(MeterRegistry meterRegistry, String cacheName, String tier, String result) {
+        return Timer.builder("cache.tier.gets")
+                .description("Lookups per tier of the two-level cache")
+                .tag("cache", cacheName)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,136 @@
+package com.finance.aiexpense.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps every cache of the shared {@code remote} manager in a {@link TwoLevelCache}.
+ * <p>
+ * Each L1 tier is bounded by {@code localMaximumSize} and expires on the same TTL as its L2 cache.
+ * Writes are published on {@code channel} as {@code origin|E|cache|key} or {@code origin|C|cache};
+ * as the channel's listener this manager drops the named L1 entries of caches it holds, ignoring its
+ * own messages. A lost message (Redis down) leaves a replica stale for at most the L1 TTL.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private static final String EVICT = "E";
+    private static final String CLEAR = "C";
+
+    private final CacheManager remote;
+    private final Map<String, Duration> ttls;
+    private final Duration defaultTtl;
+    private final long localMaximumSize;
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final MeterRegistry meterRegistry;
+
+    // Identifies this replica's own invalidation messages
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ConcurrentHashMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager remote,
+                                Map<String, Duration> ttls,
+                                Duration defaultTtl,
+                                long localMaximumSize,
+                                StringRedisTemplate redisTemplate,
+                                String channel,
+                                MeterRegistry meterRegistry) {
+        this.remote = remote;
+        this.ttls = ttls;
+        this.defaultTtl = defaultTtl;
+        this.localMaximumSize = localMaximumSize;
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remoteCache = remote.getCache(name);
+        if (remoteCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new TwoLevelCache(n,
+                Caffeine.newBuilder()
+                        .maximumSize(localMaximumSize)
+                        .expireAfterWrite(ttls.getOrDefault(n, defaultTtl))
+                        .build(),
+                remoteCache, this, meterRegistry));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    /**
+     * Evicts {@code key} from an L2 cache and reports whether it was there. RedisCache always
+     * answers false to {@code evictIfPresent}, so for Redis the key is deleted directly and the
+     * DEL result is returned; keys are plain strings, built the way RedisCache builds them.
+     */
+    boolean evictRemote(Cache remoteCache, Object key) {
+        if (remoteCache instanceof RedisCache redisCache) {
+            RedisCacheConfiguration config = redisCache.getCacheConfiguration();
+            String redisKey = config.usePrefix()
+                    ? config.getKeyPrefixFor(redisCache.getName()) + key
+                    : String.valueOf(key);
+            return Boolean.TRUE.equals(redisTemplate.delete(redisKey));
+        }
+        return remoteCache.evictIfPresent(key);
+    }
+
+    void publishEvict(String cacheName, String key) {
+        publish(String.join("|", instanceId, EVICT, cacheName, key));
+    }
+
+    void publishClear(String cacheName) {
+        publish(String.join("|", instanceId, CLEAR, cacheName));
+    }
+
+    private void publish(String message) {
+        try {
+            redisTemplate.convertAndSend(channel, message);
+        } catch (DataAccessException e) {
+            log.warn("Could not publish cache invalidation, other replicas catch up on L1 expiry: {}",
+                    e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(parts[2]);
+        if (cache == null) {
+            return;
+        }
+        if (CLEAR.equals(parts[1])) {
+            cache.clearLocal();
+        } else if (EVICT.equals(parts[1]) && parts.length == 4) {
+            cache.evictLocal(parts[3]);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.finance.aiexpense.categorization;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeSet;
+
+/**
+ * Immutable Aho–Corasick automaton over a {@link CategoryRuleSet}.
+ * <p>
+ * Keywords are compiled into a dense DFA (failure links folded into the transition table), so
+ * {@link #match(CharSequence)} is a single left-to-right pass over the description with one
+ * table lookup per character and no allocation. Matching is case-insensitive and, like the
+ * old {@code contains} chain, finds keywords anywhere in the text.
+ */
+public final class CategoryMatcher {
+
+    private static final int ROOT = 0;
+    private static final int NO_RULE = Integer.MAX_VALUE;
+
+    private final String defaultCategory;
+    // Categories ordered by rank: index 0 is the highest-priority rule
+    private final String[] categories;
+    private final int keywordCount;
+
+    // Alphabet compression: ASCII via lookup table, anything else via binary search
+    private final int[] asciiClass;
+    private final char[] otherChars;
+    private final int[] otherClass;
+    private final int alphabetSize;
+
+    private final int[] transitions;
+    // Best (lowest) rule rank reachable from each state through its output/failure chain
+    private final int[] bestRank;
+
+    private CategoryMatcher(String defaultCategory, String[] categories, int keywordCount,
+                            int[] asciiClass, char[] otherChars, int[] otherClass, int alphabetSize,
+                            int[] transitions, int[] bestRank) {
+        this.defaultCategory = defaultCategory;
+        this.categories = categories;
+        this.keywordCount = keywordCount;
+        this.asciiClass = asciiClass;
+        this.otherChars = otherChars;
+        this.otherClass = otherClass;
+        this.alphabetSize = alphabetSize;
+        this.transitions = transitions;
+        this.bestRank = bestRank;
+    }
+
+    public static CategoryMatcher compile(CategoryRuleSet ruleSet) {
+        String defaultCategory = ruleSet.getDefaultCategory() != null ? ruleSet.getDefaultCategory() : "Others";
+
+        // Rank rules once so matching only compares ints
+        if (ruleSet.getRules() == null) {
+            throw new IllegalArgumentException("Category rule set without rules");
+        }
+        List<CategoryRule> ranked = new ArrayList<>();
+        for (CategoryRule rule : ruleSet.getRules()) {
+            if (rule == null || rule.getCategory() == null || rule.getCategory().isBlank()) {
+                throw new IllegalArgumentException("Category rule without a category");
+            }
+            if (rule.getKeywords() == null || rule.getKeywords().isEmpty()) {
+                throw new IllegalArgumentException("Category rule '" + rule.getCategory() + "' has no keywords");
+            }
+            ranked.add(rule);
+        }
+        // List.sort is stable, so equal priorities keep declaration order
+        ranked.sort(Comparator.comparingInt(CategoryRule::getPriority).reversed());
+
+        String[] categories = new String[ranked.size()];
+        List<String> keywords = new ArrayList<>();
+        List<Integer> keywordRanks = new ArrayList<>();
+        TreeSet<Character> alphabet = new TreeSet<>();
+        for (int rank = 0; rank < ranked.size(); rank++) {
+            CategoryRule rule = ranked.get(rank);
+            categories[rank] = rule.getCategory();
+            for (String keyword : rule.getKeywords()) {
+                if (keyword == null || keyword.isBlank()) {
+                    continue;
+                }
+                String normalized = lowerCase(keyword.trim());
+                keywords.add(normalized);
+                keywordRanks.add(rank);
+                for (int i = 0; i < normalized.length(); i++) {
+                    alphabet.add(normalized.charAt(i));
+                }
+            }
+        }
+
+        // Class 0 is "a character no keyword contains"
+        int[] asciiClass = new int[128];
+        List<Character> nonAscii = new ArrayList<>();
+        int classes = 1;
+        for (char c : alphabet) {
+            if (c < 128) {
+                asciiClass[c] = classes++;
+            } else {
+                nonAscii.add(c);
+            }
+        }
+        char[] otherChars = new char[nonAscii.size()];
+        int[] otherClass = new int[nonAscii.size()];
+        for (int i = 0; i < otherChars.length; i++) {
+            otherChars[i] = nonAscii.get(i);
+            otherClass[i] = classes++;
+        }
+        int alphabetSize = classes;
+
+        // 1. Trie
+        List<Map<Integer, Integer>> trie = new ArrayList<>();
+        List<Integer> output = new ArrayList<>();
+        trie.add(new HashMap<>());
+        output.add(NO_RULE);
+        for (int k = 0; k < keywords.size(); k++) {
+            String keyword = keywords.get(k);
+            int state = ROOT;
+            for (int i = 0; i < keyword.length(); i++) {
+                int cls = classOf(keyword.charAt(i), asciiClass, otherChars, otherClass);
+                Integer next = trie.get(state).get(cls);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new HashMap<>());
+                    output.add(NO_RULE);
+                    trie.get(state).put(cls, next);
+                }
+                state = next;
+            }
+            output.set(state, Math.min(output.get(state), keywordRanks.get(k)));
+        }
+
+        // 2. BFS to fill failure links into a dense transition table
+        int states = trie.size();
+        int[] transitions = new int[states * alphabetSize];
+        int[] bestRank = new int[states];
+        int[] failure = new int[states];
+        for (int s = 0; s < states; s++) {
+            bestRank[s] = output.get(s);
+        }
+
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int cls = 0; cls < alphabetSize; cls++) {
+            Integer child = trie.get(ROOT).get(cls);
+            if (child != null) {
+                transitions[cls] = child;
+                failure[child] = ROOT;
+                queue.add(child);
+            } else {
+                transitions[cls] = ROOT;
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            bestRank[state] = Math.min(bestRank[state], bestRank[failure[state]]);
+            int base = state * alphabetSize;
+            int failureBase = failure[state] * alphabetSize;
+            for (int cls = 0; cls < alphabetSize; cls++) {
+                Integer child = trie.get(state).get(cls);
+                if (child != null) {
+                    transitions[base + cls] = child;
+                    failure[child] = transitions[failureBase + cls];
+                    queue.add(child);
+                } else {
+                    transitions[base + cls] = transitions[failureBase + cls];
+                }
+            }
+        }
+
+        return new CategoryMatcher(defaultCategory, categories, keywords.size(),
+                asciiClass, otherChars, otherClass, alphabetSize, transitions, bestRank);
+    }
+
+    /**
+     * Category of the highest-priority rule with a keyword in {@code description},
+     * or the default category when nothing matches.
+     */
+    public String match(CharSequence description) {
+        if (description == null) {
+            return defaultCategory;
+        }
+        int state = ROOT;
+        int best = NO_RULE;
+        for (int i = 0, length = description.length(); i < length; i++) {
+            char c = Character.toLowerCase(description.charAt(i));
+            state = transitions[state * alphabetSize + classOf(c, asciiClass, otherChars, otherClass)];
+            int rank = bestRank[state];
+            if (rank < best) {
+                best = rank;
+                if (best == 0) {
+                    // Nothing can outrank the top rule
+                    break;
+                }
+            }
+        }
+        return best == NO_RULE ? defaultCategory : categories[best];
+    }
+
+    public String getDefaultCategory() {
+        return defaultCategory;
+    }
+
+    public int getRuleCount() {
+        return categories.length;
+    }
+
+    public int getKeywordCount() {
+        return keywordCount;
+    }
+
+    public int getStateCount() {
+        return bestRank.length;
+    }
+
+    private static int classOf(char c, int[] asciiClass, char[] otherChars, int[] otherClass) {
+        if (c < 128) {
+            return asciiClass[c];
+        }
+        int index = Arrays.binarySearch(otherChars, c);
+        return index >= 0 ? otherClass[index] : 0;
+    }
+
+    // Same per-char folding as match(), so keywords and input agree
+    private static String lowerCase(String value) {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            builder.append(Character.toLowerCase(value.charAt(i)));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,24 @@
+package com.finance.aiexpense.categorization;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One keyword→category rule. When keywords from several rules occur in a description,
+ * the rule with the highest priority wins; equal priorities fall back to declaration order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryRule {
+    private String category;
+    private int priority;
+    @Builder.Default
+    private List<String> keywords = new ArrayList<>();
+}
@@ -0,0 +1,20 @@
+package com.finance.aiexpense.categorization;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryRuleSet {
+    @Builder.Default
+    private String defaultCategory = "Others";
+    @Builder.Default
+    private List<CategoryRule> rules = new ArrayList<>();
+}
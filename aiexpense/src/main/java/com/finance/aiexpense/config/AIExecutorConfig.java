@@ -0,0 +1,117 @@
+package com.finance.aiexpense.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AIExecutorConfig {
+
+    public static final String GEMINI_EXECUTOR = "geminiExecutor";
+    public static final String INSIGHT_EXECUTOR = "insightExecutor";
+
+    @Value("${app.ai.executor.pool-size:32}")
+    private int poolSize;
+
+    @Value("${app.ai.executor.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${app.ai.executor.await-termination:15s}")
+    private Duration awaitTermination;
+
+    @Value("${app.insights.workers:2}")
+    private int insightWorkers;
+
+    /**
+     * Runs blocking Gemini HTTP calls off the common ForkJoinPool, which only has one or two
+     * workers on small containers. Fixed size because the work is I/O-bound; when every thread
+     * is busy and the queue is full the task is rejected, which the geminiAI circuit breaker's
+     * fallback turns into a fast "try again" answer instead of piling up waiters.
+     */
+    @Bean(name = GEMINI_EXECUTOR)
+    public ThreadPoolTaskExecutor geminiExecutor(MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder("ai.executor.rejected")
+                .description("Gemini calls rejected because the AI executor was saturated")
+                .tag("name", "gemini")
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("gemini-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            throw new RejectedExecutionException("Gemini executor saturated ("
+                    + pool.getActiveCount() + " active, " + pool.getQueue().size() + " queued)");
+        });
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationMillis(awaitTermination.toMillis());
+        return executor;
+    }
+
+    // executor.active / executor.queued / executor.pool.size etc. {name="gemini"}
+    @Bean
+    public MeterBinder geminiExecutorMetrics(@Qualifier(GEMINI_EXECUTOR) ThreadPoolTaskExecutor executor) {
+        return executorMetrics(executor, "gemini");
+    }
+
+    /**
+     * Background insight regeneration. Each worker blocks on one Gemini call at a time, so the pool
+     * size caps how much of the Gemini executor and quota the pipeline can take from live requests.
+     * No queue beyond one run's batch: a full pool rejects and the user stays dirty.
+     */
+    @Bean(name = INSIGHT_EXECUTOR)
+    public ThreadPoolTaskExecutor insightExecutor(@Value("${app.insights.max-per-run:20}") int maxPerRun) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("insight-");
+        executor.setCorePoolSize(insightWorkers);
+        executor.setMaxPoolSize(insightWorkers);
+        executor.setQueueCapacity(maxPerRun);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    @Bean
+    public MeterBinder insightExecutorMetrics(@Qualifier(INSIGHT_EXECUTOR) ThreadPoolTaskExecutor executor) {
+        return executorMetrics(executor, "insight");
+    }
+
+    /**
+     * Binds the standard executor metrics to a pool bean. The container initializes the executor
+     * after its @Bean method returns, replacing any pool created earlier, so the pool is looked up
+     * when the registry binds rather than inside the @Bean method.
+     */
+    static MeterBinder executorMetrics(ThreadPoolTaskExecutor executor, String name) {
+        return registry -> ExecutorServiceMetrics.monitor(registry, executor.getThreadPoolExecutor(), name);
+    }
+
+    /**
+     * Declaring any Executor bean makes Boot back off its applicationTaskExecutor, which MVC
+     * uses for async requests (StreamingResponseBody exports, SSE). Recreate it from Boot's
+     * builder so spring.task.execution.* keeps working.
+     */
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
@@ -1,25 +1,107 @@
 package com.finance.aiexpense.config;
 
+import com.finance.aiexpense.cache.RefreshAheadCacheManager;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
-    // Default in-memory cache (for development)
+    public static final String CACHE_REFRESH_EXECUTOR = "cacheRefreshExecutor";
+
+    // Per-cache TTLs, shared by the local tier and Redis
+    static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+    static final Map<String, Duration> CACHE_TTLS = Map.of(
+            "transactions", Duration.ofMinutes(5),
+            "userStats", Duration.ofMinutes(15)
+    );
+
+    // Caches whose hot keys are refreshed early in the background instead of expiring all at once
+    @Value("${app.cache.refresh-ahead.caches:userStats}")
+    private List<String> refreshAheadCaches;
+
+    // How long past its TTL a refresh-ahead entry is still served while it is being recomputed
+    @Value("${app.cache.refresh-ahead.stale-window:5m}")
+    private Duration staleWindow;
+
+    // XFetch beta: > 1 refreshes earlier, < 1 later
+    @Value("${app.cache.refresh-ahead.beta:1.0}")
+    private double beta;
+
+    @Value("${app.cache.refresh-ahead.pool-size:2}")
+    private int refreshPoolSize;
+
+    @Value("${app.cache.refresh-ahead.queue-capacity:100}")
+    private int refreshQueueCapacity;
+
+    // In-memory cache for development: the local tier alone, bounded and expiring like prod
     @Bean
     @Profile("dev")
-    public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager(
-                "transactions",
-                "insights",
-                "userStats",
-                "aiResponses"
-        );
+    public CacheManager cacheManager(@Value("${app.cache.local.maximum-size:10000}") long maximumSize,
+                                     @Qualifier(CACHE_REFRESH_EXECUTOR) ThreadPoolTaskExecutor refreshExecutor,
+                                     MeterRegistry meterRegistry) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        storedTtls().forEach((name, ttl) -> cacheManager.registerCustomCache(name, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build()));
+        return refreshAhead(cacheManager, refreshExecutor, meterRegistry);
+    }
+
+    /**
+     * Runs early cache refreshes. Small and bounded: when it is saturated the refresh is skipped
+     * and readers keep the current value.
+     */
+    @Bean(name = CACHE_REFRESH_EXECUTOR)
+    public ThreadPoolTaskExecutor cacheRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("cache-refresh-");
+        executor.setCorePoolSize(refreshPoolSize);
+        executor.setMaxPoolSize(refreshPoolSize);
+        executor.setQueueCapacity(refreshQueueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    @Bean
+    public MeterBinder cacheRefreshExecutorMetrics(
+            @Qualifier(CACHE_REFRESH_EXECUTOR) ThreadPoolTaskExecutor executor) {
+        return AIExecutorConfig.executorMetrics(executor, "cacheRefresh");
+    }
+
+    /**
+     * TTLs the backing caches should use: refresh-ahead caches keep entries a stale window past
+     * their TTL so readers are never left without a value while one refresher recomputes it.
+     */
+    Map<String, Duration> storedTtls() {
+        Map<String, Duration> stored = new HashMap<>(CACHE_TTLS);
+        refreshAheadCaches.forEach(name ->
+                stored.put(name, stored.getOrDefault(name, DEFAULT_TTL).plus(staleWindow)));
+        return stored;
+    }
+
+    RefreshAheadCacheManager refreshAhead(CacheManager delegate, ThreadPoolTaskExecutor refreshExecutor,
+                                          MeterRegistry meterRegistry) {
+        return new RefreshAheadCacheManager(delegate, CACHE_TTLS, DEFAULT_TTL, Set.copyOf(refreshAheadCaches),
+                beta, refreshExecutor, meterRegistry);
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,25 @@
 package com.finance.aiexpense.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Configuration
 public class GeminiConfig {
 
@@ -17,9 +32,75 @@ public class GeminiConfig {
     @Value("${gemini.api.model}")
     private String model;
 
+    @Value("${gemini.api.generation.temperature:0.7}")
+    private double temperature = 0.7;
+
+    @Value("${gemini.api.generation.top-k:40}")
+    private int topK = 40;
+
+    @Value("${gemini.api.generation.top-p:0.95}")
+    private double topP = 0.95;
+
+    @Value("${gemini.api.generation.max-output-tokens:2048}")
+    private int maxOutputTokens = 2048;
+
+    // Outbound HTTP: pool-wait + connect + response stay within the 10s geminiAI TimeLimiter,
+    // so a slow call frees its thread instead of outliving the request that gave up on it
+    @Value("${gemini.http.max-connections:50}")
+    private int maxConnections = 50;
+
+    @Value("${gemini.http.connection-request-timeout:500ms}")
+    private Duration connectionRequestTimeout = Duration.ofMillis(500);
+
+    @Value("${gemini.http.connect-timeout:1500ms}")
+    private Duration connectTimeout = Duration.ofMillis(1500);
+
+    @Value("${gemini.http.response-timeout:8s}")
+    private Duration responseTimeout = Duration.ofSeconds(8);
+
+    @Value("${gemini.http.keep-alive:60s}")
+    private Duration keepAlive = Duration.ofSeconds(60);
+
+    @Value("${gemini.http.idle-eviction:30s}")
+    private Duration idleEviction = Duration.ofSeconds(30);
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager geminiConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                // Every call goes to the same host, so the per-route limit is the real limit
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(responseTimeout.toMillis()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .build();
+
+        // httpcomponents.httpclient.pool.* {httpclient="gemini"}: leased/available connections, pending waiters
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "gemini").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient geminiHttpClient(PoolingHttpClientConnectionManager geminiConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(geminiConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeout.toMillis()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(responseTimeout.toMillis()))
+                        // Used when the server sends no Keep-Alive header
+                        .setConnectionKeepAlive(TimeValue.ofMilliseconds(keepAlive.toMillis()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEviction.toMillis()))
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient geminiHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(geminiHttpClient));
     }
 
     public String getApiKey() {
@@ -33,4 +114,17 @@ public class GeminiConfig {
     public String getModel() {
         return model;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gemini generationConfig block. Insertion order is fixed, so its string form is stable
+     * and can be part of a cache key.
+     */
+    public Map<String, Object> getGenerationConfig() {
+        Map<String, Object> generationConfig = new LinkedHashMap<>();
+        generationConfig.put("temperature", temperature);
+        generationConfig.put("topK", topK);
+        generationConfig.put("topP", topP);
+        generationConfig.put("maxOutputTokens", maxOutputTokens);
+        return generationConfig;
+    }
+}
@@ -1,42 +1,93 @@
 package com.finance.aiexpense.config;
 
+import com.finance.aiexpense.cache.CacheCodec;
+import com.finance.aiexpense.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.time.Duration;
+import java.util.Map;
+
+import static com.finance.aiexpense.config.CacheConfig.DEFAULT_TTL;
 
 @Configuration
 @Profile("prod")
 public class RedisCacheConfig {
 
+    @Value("${app.cache.local.maximum-size:10000}")
+    private long localMaximumSize;
+
+    @Value("${app.cache.invalidation-channel:cache-invalidation}")
+    private String invalidationChannel;
+
+    @Value("${app.cache.codec:smile}")
+    private CacheCodec codec;
+
+    @Value("${app.cache.compression-threshold:1024}")
+    private int compressionThreshold;
+
+    // Refresh-ahead wrapper the caching annotations and UserCacheService go through
+    @Bean
+    @Primary
+    public CacheManager cacheManager(TwoLevelCacheManager twoLevelCacheManager,
+                                     CacheConfig cacheConfig,
+                                     @Qualifier(CacheConfig.CACHE_REFRESH_EXECUTOR) ThreadPoolTaskExecutor refreshExecutor,
+                                     MeterRegistry meterRegistry) {
+        return cacheConfig.refreshAhead(twoLevelCacheManager, refreshExecutor, meterRegistry);
+    }
+
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public TwoLevelCacheManager twoLevelCacheManager(RedisConnectionFactory connectionFactory,
+                                                     StringRedisTemplate redisTemplate,
+                                                     CacheConfig cacheConfig,
+                                                     MeterRegistry meterRegistry) {
+        Map<String, Duration> ttls = cacheConfig.storedTtls();
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(10)) // Default TTL
+                .entryTtl(DEFAULT_TTL)
+                // Keys carry the codec, so switching codecs never decodes another format's bytes
+                .prefixCacheNameWith(codec.getPrefix() + ":")
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer())
                 )
                 .serializeValuesWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(
-                                new GenericJackson2JsonRedisSerializer()
+                                codec.serializer(compressionThreshold)
                         )
                 )
                 .disableCachingNullValues();
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(config)
-                .withCacheConfiguration("transactions", config.entryTtl(Duration.ofMinutes(5)))
-                .withCacheConfiguration("insights", config.entryTtl(Duration.ofHours(1)))
-                .withCacheConfiguration("userStats", config.entryTtl(Duration.ofMinutes(15)))
-                .withCacheConfiguration("aiResponses", config.entryTtl(Duration.ofHours(24)))
-                .build();
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(config);
+        ttls.forEach((name, ttl) -> builder.withCacheConfiguration(name, config.entryTtl(ttl)));
+        RedisCacheManager redisCacheManager = builder.build();
+        // Not a bean, so Spring does not initialize it for us
+        redisCacheManager.afterPropertiesSet();
+
+        return new TwoLevelCacheManager(redisCacheManager, ttls, DEFAULT_TTL, localMaximumSize,
+                redisTemplate, invalidationChannel, meterRegistry);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                   TwoLevelCacheManager twoLevelCacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(twoLevelCacheManager, new ChannelTopic(invalidationChannel));
+        return container;
     }
 }
@@ -3,18 +3,25 @@ package com.finance.aiexpense.controller;
 import com.finance.aiexpense.dto.*;
 import com.finance.aiexpense.entity.User;
 import com.finance.aiexpense.service.AIService;
+import com.finance.aiexpense.service.InsightService;
 import com.finance.aiexpense.service.RateLimiterService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RestController
 @RequestMapping("/api/ai")
@@ -25,41 +32,84 @@ public class AIController {
 
     private final AIService aiService;
     private final RateLimiterService rateLimiterService;
+    private final InsightService insightService;
 
     @PostMapping("/analyze")
     @Operation(summary = "Analyze and categorize transactions using AI")
-    public ResponseEntity<ApiResponse<AIAnalysisResponse>> analyzeTransactions(
+    public CompletableFuture<ResponseEntity<ApiResponse<AIAnalysisResponse>>> analyzeTransactions(
             @Valid @RequestBody AIAnalysisRequest request) {
-        AIAnalysisResponse analysis = aiService.analyzeTransactions(request.getTransactions());
-        return ResponseEntity.ok(ApiResponse.success("Analysis completed", analysis));
+        return aiService.analyzeTransactions(request.getTransactions())
+                .thenApply(analysis -> ResponseEntity.ok(ApiResponse.success("Analysis completed", analysis)));
     }
 
     @GetMapping("/insights")
-    @Operation(summary = "Get AI-generated financial insights")
-    public ResponseEntity<ApiResponse<String>> getInsights(
-            @AuthenticationPrincipal User user) {
-        String insights = aiService.generateInsights(user);
-        return ResponseEntity.ok(ApiResponse.success("Insights generated", insights));
+    @Operation(summary = "Get AI-generated financial insights (precomputed in the background)")
+    public ResponseEntity<ApiResponse<InsightDTO>> getInsights(@AuthenticationPrincipal User user) {
+        InsightDTO insights = insightService.getInsights(user);
+        return ResponseEntity.ok(ApiResponse.success("Insights retrieved", insights));
     }
 
     @PostMapping("/chatbot")
     @Operation(summary = "Chat with AI finance assistant (Rate limited)")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> chatWithAI(
+    public CompletableFuture<ResponseEntity<ApiResponse<Map<String, Object>>>> chatWithAI(
             @Valid @RequestBody ChatRequest request,
             @AuthenticationPrincipal User user) {
 
-        // Check rate limit before processing
-        rateLimiterService.checkAndIncrementAIChatLimit(user);
+        // Check rate limit before processing; a rejection is still a synchronous 429
+        int remaining = rateLimiterService.checkAndIncrementAIChatLimit(user);
 
-        String response = aiService.chatWithAI(request.getQuery(), user);
-        int remaining = rateLimiterService.getRemainingAIChats(user);
+        return aiService.chatWithAI(request.getQuery(), user)
+                .thenApply(response -> {
+                    Map<String, Object> responseData = new HashMap<>();
+                    responseData.put("response", response);
+                    responseData.put("remainingChats", remaining);
+                    responseData.put("subscriptionTier", user.getSubscriptionTier().name());
+
+                    return ResponseEntity.ok(ApiResponse.success("Chat response generated", responseData));
+                });
+    }
 
-        Map<String, Object> responseData = new HashMap<>();
-        responseData.put("response", response);
-        responseData.put("remainingChats", remaining);
-        responseData.put("subscriptionTier", user.getSubscriptionTier().name());
+    /**
+     * Streams the chat answer as Server-Sent Events: {@code chunk} events with {"text": ...} as Gemini
+     * produces them, then one {@code done} event with the remaining-chat count, or {@code error} if the
+     * answer broke off part-way. Counts against the daily limit exactly once, before any AI work.
+     */
+    @PostMapping(value = "/chatbot/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Chat with AI finance assistant, streamed as Server-Sent Events (Rate limited)")
+    public SseEmitter streamChatWithAI(
+            @Valid @RequestBody ChatRequest request,
+            @AuthenticationPrincipal User user) {
 
-        return ResponseEntity.ok(ApiResponse.success("Chat response generated", responseData));
+        // Check rate limit before opening the stream, so a rejection is a plain 429
+        int remaining = rateLimiterService.checkAndIncrementAIChatLimit(user);
+
+        // Timeout comes from spring.mvc.async.request-timeout
+        SseEmitter emitter = new SseEmitter();
+        AtomicBoolean closed = new AtomicBoolean();
+        emitter.onCompletion(() -> closed.set(true));
+        emitter.onError(e -> closed.set(true));
+        emitter.onTimeout(emitter::complete);
+
+        aiService.streamChatWithAI(request.getQuery(), user,
+                        chunk -> sendEvent(emitter, closed, "chunk", Map.of("text", chunk)))
+                .whenComplete((response, e) -> {
+                    try {
+                        if (e == null) {
+                            Map<String, Object> doneData = new HashMap<>();
+                            doneData.put("remainingChats", remaining);
+                            doneData.put("subscriptionTier", user.getSubscriptionTier().name());
+                            sendEvent(emitter, closed, "done", doneData);
+                        } else {
+                            sendEvent(emitter, closed, "error",
+                                    Map.of("message", "The response was interrupted. Please try again."));
+                        }
+                        emitter.complete();
+                    } catch (CancellationException ignored) {
+                        // Client already gone; nothing left to send
+                    }
+                });
+
+        return emitter;
     }
 
     @GetMapping("/chat-limit")
@@ -78,4 +128,17 @@ public class AIController {
 
         return ResponseEntity.ok(ApiResponse.success(limitInfo));
     }
+
+    // Throwing CancellationException stops the upstream Gemini read once the client has disconnected
+    private void sendEvent(SseEmitter emitter, AtomicBoolean closed, String name, Object data) {
+        if (closed.get()) {
+            throw new CancellationException("Chat stream closed");
+        }
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            closed.set(true);
+            throw new CancellationException("Chat stream closed");
+        }
+    }
 }
@@ -3,6 +3,7 @@ package com.finance.aiexpense.controller;
 import com.finance.aiexpense.dto.*;
 import com.finance.aiexpense.entity.Payment;
 import com.finance.aiexpense.entity.User;
+import com.finance.aiexpense.service.PaymentIdempotencyService;
 import com.finance.aiexpense.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -23,14 +24,16 @@ import java.util.List;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentIdempotencyService paymentIdempotencyService;
 
     @PostMapping("/create-order")
-    @Operation(summary = "Create payment order")
+    @Operation(summary = "Create payment order (retries with the same Idempotency-Key replay the first response)")
     public ResponseEntity<ApiResponse<PaymentResponse>> createPaymentOrder(
             @Valid @RequestBody PaymentRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @AuthenticationPrincipal User user) {
 
-        PaymentResponse response = paymentService.createPaymentOrder(request, user);
+        PaymentResponse response = paymentIdempotencyService.createPaymentOrder(request, user, idempotencyKey);
 
         if (response.isSuccess()) {
             return ResponseEntity.ok(
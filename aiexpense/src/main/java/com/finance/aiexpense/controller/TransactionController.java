@@ -2,8 +2,14 @@ package com.finance.aiexpense.controller;
 
 import com.finance.aiexpense.dto.ApiResponse;
 import com.finance.aiexpense.dto.TransactionDTO;
+import com.finance.aiexpense.dto.TransactionImportResult;
+import com.finance.aiexpense.dto.TransactionPageDTO;
 import com.finance.aiexpense.dto.TransactionRequest;
 import com.finance.aiexpense.entity.User;
+import com.finance.aiexpense.enums.ExportFormat;
+import com.finance.aiexpense.exception.BadRequestException;
+import com.finance.aiexpense.service.TransactionExportService;
+import com.finance.aiexpense.service.TransactionImportService;
 import com.finance.aiexpense.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -11,10 +17,17 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -26,6 +39,8 @@ import java.util.List;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
+    private final TransactionImportService transactionImportService;
 
     @PostMapping("/add")
     @Operation(summary = "Add new transaction")
@@ -36,14 +51,58 @@ public class TransactionController {
         return ResponseEntity.ok(ApiResponse.success("Transaction added successfully", transaction));
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Bulk import transactions from a CSV bank statement",
+            description = "CSV with a header row: date,description,amount[,category][,paymentMode]")
+    public ResponseEntity<ApiResponse<TransactionImportResult>> importTransactions(
+            @RequestParam("file") MultipartFile file,
+            @AuthenticationPrincipal User user) throws IOException {
+        if (file.isEmpty()) {
+            throw new BadRequestException("Import file is empty");
+        }
+        try (InputStream inputStream = file.getInputStream()) {
+            TransactionImportResult result = transactionImportService.importCsv(inputStream, user);
+            return ResponseEntity.ok(ApiResponse.success("Transactions imported", result));
+        }
+    }
+
     @GetMapping("/all")
-    @Operation(summary = "Get all user transactions")
+    @Operation(summary = "Get all user transactions", deprecated = true,
+            description = "Unbounded listing, use /api/transactions/page instead")
     public ResponseEntity<ApiResponse<List<TransactionDTO>>> getAllTransactions(
             @AuthenticationPrincipal User user) {
         List<TransactionDTO> transactions = transactionService.getAllTransactions(user);
         return ResponseEntity.ok(ApiResponse.success(transactions));
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Get user transactions page by page (newest first)")
+    public ResponseEntity<ApiResponse<TransactionPageDTO>> getTransactionPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @AuthenticationPrincipal User user) {
+        TransactionPageDTO page = transactionService.getTransactionPage(user, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export all user transactions as CSV or NDJSON (streamed)")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "csv") String format,
+            @AuthenticationPrincipal User user) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        StreamingResponseBody body = outputStream ->
+                transactionExportService.export(user, exportFormat, outputStream);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("transactions." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .body(body);
+    }
+
     @GetMapping("/date-range")
     @Operation(summary = "Get transactions by date range")
     public ResponseEntity<ApiResponse<List<TransactionDTO>>> getTransactionsByDateRange(
@@ -0,0 +1,16 @@
+package com.finance.aiexpense.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategorySpendingDTO {
+    private String category;
+    private Double totalAmount;
+    private Long transactionCount;
+}
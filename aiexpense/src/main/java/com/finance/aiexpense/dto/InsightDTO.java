@@ -0,0 +1,20 @@
+package com.finance.aiexpense.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InsightDTO {
+    private String insights;
+    // Null until the first insight for this user has been computed
+    private LocalDateTime generatedAt;
+    // A newer insight is queued, e.g. transactions changed since generatedAt
+    private boolean refreshing;
+}
@@ -0,0 +1,37 @@
+package com.finance.aiexpense.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionImportResult {
+    private int totalRows;
+    private int importedRows;
+    private int skippedRows;
+
+    @Builder.Default
+    private List<ChunkProgress> chunks = new ArrayList<>();
+
+    @Builder.Default
+    private List<String> errors = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChunkProgress {
+        private int chunk;
+        private int rows;
+        private int imported;
+        private int skipped;
+        private int importedSoFar;
+    }
+}
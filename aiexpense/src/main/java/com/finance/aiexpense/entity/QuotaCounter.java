@@ -0,0 +1,51 @@
+package com.finance.aiexpense.entity;
+
+import com.finance.aiexpense.enums.QuotaWindow;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Running usage for one (user, limit type, window). Maintained by QuotaService on every write and
+ * reconciled against the source table nightly.
+ */
+@Entity
+@Table(name = "quota_counters",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "limit_type", "period", "period_start"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QuotaCounter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "limit_type", nullable = false)
+    private LimitType limitType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "period", nullable = false)
+    private QuotaWindow period;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    // Exclusive
+    @Column(name = "period_end", nullable = false)
+    private LocalDate periodEnd;
+
+    @Column(nullable = false)
+    private Long used;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -7,7 +7,8 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions",
+        indexes = @Index(name = "idx_transactions_user_date_id", columnList = "user_id, date DESC, id DESC"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
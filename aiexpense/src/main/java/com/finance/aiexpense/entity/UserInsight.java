@@ -0,0 +1,28 @@
+package com.finance.aiexpense.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Latest precomputed insight text per user, written by InsightService's background pipeline.
+ */
+@Entity
+@Table(name = "user_insights")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserInsight {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    @Column(name = "generated_at", nullable = false)
+    private LocalDateTime generatedAt;
+}
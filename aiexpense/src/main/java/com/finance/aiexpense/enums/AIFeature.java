@@ -0,0 +1,20 @@
+package com.finance.aiexpense.enums;
+
+/**
+ * Which product feature issued a Gemini call; used to tag AI cache and call metrics.
+ */
+public enum AIFeature {
+    ANALYZE("analyze"),
+    INSIGHTS("insights"),
+    CHAT("chat");
+
+    private final String tag;
+
+    AIFeature(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,41 @@
+package com.finance.aiexpense.enums;
+
+import java.time.LocalDate;
+
+/**
+ * Period a quota counter covers. Bounds are dates: start inclusive, end exclusive.
+ */
+public enum QuotaWindow {
+    DAILY("Daily"),
+    MONTHLY("Monthly"),
+    LIFETIME("Total");
+
+    // Postgres can't store LocalDate.MAX; any far-future date works as "never ends"
+    private static final LocalDate OPEN_END = LocalDate.of(9999, 12, 31);
+
+    private final String label;
+
+    QuotaWindow(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public LocalDate start(LocalDate date) {
+        return switch (this) {
+            case DAILY -> date;
+            case MONTHLY -> date.withDayOfMonth(1);
+            case LIFETIME -> LocalDate.EPOCH;
+        };
+    }
+
+    public LocalDate end(LocalDate date) {
+        return switch (this) {
+            case DAILY -> date.plusDays(1);
+            case MONTHLY -> date.withDayOfMonth(1).plusMonths(1);
+            case LIFETIME -> OPEN_END;
+        };
+    }
+}
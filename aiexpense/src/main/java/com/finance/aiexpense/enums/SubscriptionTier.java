@@ -1,10 +1,14 @@
 package com.finance.aiexpense.enums;
 
+import com.finance.aiexpense.entity.LimitType;
+
 public enum SubscriptionTier {
     FREE(2, 10, 100),           // 2 AI chats/day, 10 transactions/month
     PREMIUM(15, -1, 1000),      // 50 AI chats/day, unlimited transactions
     ENTERPRISE(30, -1, 10000); // 200 AI chats/day, unlimited
 
+    public static final int UNLIMITED = -1;
+
     private final int dailyAIChatLimit;
     private final int monthlyTransactionLimit;
     private final int totalTransactionLimit;
@@ -26,4 +30,16 @@ public enum SubscriptionTier {
     public int getTotalTransactionLimit() {
         return totalTransactionLimit;
     }
-}
\ No newline at end of file
+
+    /** Cap for one quota dimension, or {@link #UNLIMITED} when the tier doesn't meter it. */
+    public int getQuotaLimit(LimitType limitType, QuotaWindow window) {
+        return switch (limitType) {
+            case AI_CHAT -> window == QuotaWindow.DAILY ? dailyAIChatLimit : UNLIMITED;
+            case TRANSACTION -> switch (window) {
+                case MONTHLY -> monthlyTransactionLimit;
+                case LIFETIME -> totalTransactionLimit;
+                default -> UNLIMITED;
+            };
+        };
+    }
+}
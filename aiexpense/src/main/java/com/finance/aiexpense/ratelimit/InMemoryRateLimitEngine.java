@@ -0,0 +1,156 @@
+package com.finance.aiexpense.ratelimit;
+
+import com.finance.aiexpense.entity.LimitType;
+import com.finance.aiexpense.repository.RateLimitRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rate limiting on in-process counters, written behind to {@code rate_limits}.
+ * <p>
+ * Each user/type/day has its own counter, so requests from different users never contend and
+ * requests from the same user resolve with a compare-and-set loop instead of a row lock. A counter
+ * is seeded from its {@code rate_limits} row the first time it is touched, so a restart does not
+ * hand out a fresh allowance. Dirty counters are flushed on a fixed delay and on shutdown.
+ * <p>
+ * Counters are per JVM: with several instances each one enforces the limit on its own. Use the
+ * {@code redis} engine when the API is scaled out.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.rate-limit.engine", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimitEngine implements RateLimitEngine {
+
+    private final RateLimitRepository rateLimitRepository;
+
+    private final ConcurrentHashMap<CounterKey, Counter> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public RateLimitDecision tryAcquire(Long userId, LimitType limitType, LocalDate window, int limit) {
+        Counter counter = counter(new CounterKey(userId, limitType, window));
+        while (true) {
+            int used = counter.used.get();
+            if (used >= limit) {
+                return new RateLimitDecision(false, used, limit);
+            }
+            if (counter.used.compareAndSet(used, used + 1)) {
+                counter.lastRequestTime = LocalDateTime.now();
+                return new RateLimitDecision(true, used + 1, limit);
+            }
+        }
+    }
+
+    @Override
+    public int getUsed(Long userId, LimitType limitType, LocalDate window) {
+        return counter(new CounterKey(userId, limitType, window)).used.get();
+    }
+
+    @Override
+    public String getEngineName() {
+        return "memory";
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.flush-interval:5000}")
+    public void flush() {
+        LocalDate today = LocalDate.now();
+        int written = 0;
+        for (Iterator<Map.Entry<CounterKey, Counter>> it = counters.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<CounterKey, Counter> entry = it.next();
+            CounterKey key = entry.getKey();
+            Counter counter = entry.getValue();
+
+            int used = counter.used.get();
+            if (used > counter.persisted) {
+                try {
+                    rateLimitRepository.upsertRequestCount(key.userId, key.limitType.name(), key.window,
+                            used, counter.lastRequestTime);
+                    counter.persisted = used;
+                    written++;
+                } catch (RuntimeException e) {
+                    // Keep the counter dirty; the next flush retries
+                    log.warn("Failed to persist rate limit for user {} ({}): {}", key.userId, key.limitType, e.getMessage());
+                    continue;
+                }
+            }
+            // Past windows are never consulted again once they are on disk
+            if (key.window.isBefore(today) && counter.used.get() == counter.persisted) {
+                it.remove();
+            }
+        }
+        if (written > 0) {
+            log.debug("Persisted {} rate limit counters", written);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private Counter counter(CounterKey key) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            return counter;
+        }
+        // Load outside the map so a slow query never blocks other keys; a racing loader just loses
+        int persisted = rateLimitRepository
+                .findRequestCount(key.userId, key.limitType, key.window)
+                .orElse(0);
+        Counter loaded = new Counter(persisted);
+        Counter existing = counters.putIfAbsent(key, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private static final class CounterKey {
+        private final Long userId;
+        private final LimitType limitType;
+        private final LocalDate window;
+
+        private CounterKey(Long userId, LimitType limitType, LocalDate window) {
+            this.userId = userId;
+            this.limitType = limitType;
+            this.window = window;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CounterKey other)) {
+                return false;
+            }
+            return userId.equals(other.userId) && limitType == other.limitType && window.equals(other.window);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, limitType, window);
+        }
+    }
+
+    private static final class Counter {
+        private final AtomicInteger used;
+        // Last value written to rate_limits; only the flush thread writes it
+        private volatile int persisted;
+        private volatile LocalDateTime lastRequestTime;
+
+        private Counter(int persisted) {
+            this.used = new AtomicInteger(persisted);
+            this.persisted = persisted;
+        }
+    }
+}
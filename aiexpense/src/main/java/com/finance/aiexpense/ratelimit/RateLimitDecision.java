@@ -0,0 +1,19 @@
+package com.finance.aiexpense.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class RateLimitDecision {
+
+    private final boolean allowed;
+    private final int used;
+    private final int limit;
+
+    public int getRemaining() {
+        return Math.max(0, limit - used);
+    }
+}
@@ -0,0 +1,23 @@
+package com.finance.aiexpense.ratelimit;
+
+import com.finance.aiexpense.entity.LimitType;
+
+import java.time.LocalDate;
+
+/**
+ * Counts requests per user, limit type and day. Implementations must make {@link #tryAcquire}
+ * atomic: two concurrent calls can never both take the last remaining slot.
+ */
+public interface RateLimitEngine {
+
+    /**
+     * Takes one slot if fewer than {@code limit} have been used in the window, and reports the
+     * usage after the call either way.
+     */
+    RateLimitDecision tryAcquire(Long userId, LimitType limitType, LocalDate window, int limit);
+
+    /** Slots used so far in the window, without taking one. */
+    int getUsed(Long userId, LimitType limitType, LocalDate window);
+
+    String getEngineName();
+}
@@ -0,0 +1,142 @@
+package com.finance.aiexpense.ratelimit;
+
+import com.finance.aiexpense.entity.LimitType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rate limiting shared by every instance through Redis.
+ * <p>
+ * Check, increment and expiry run in one Lua script ({@code ratelimit/acquire.lua}), so admission is
+ * atomic across replicas without touching the {@code rate_limits} row. Keys expire at the local
+ * midnight that ends their window.
+ * <p>
+ * If Redis can't be reached the engine degrades to local counters, starting from the last count
+ * Redis reported, and stops trying Redis for {@code retry-after}. While degraded each instance
+ * enforces the limit on its own.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.engine", havingValue = "redis")
+public class RedisRateLimitEngine implements RateLimitEngine {
+
+    private static final String KEY_PREFIX = "ratelimit:";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ACQUIRE_SCRIPT =
+            RedisScript.of(new ClassPathResource("ratelimit/acquire.lua"), List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ZoneId zone;
+    private final Duration retryAfter;
+
+    // Last known count per key; serves as the limiter while Redis is unavailable
+    private final ConcurrentHashMap<String, AtomicInteger> localCounts = new ConcurrentHashMap<>();
+    private volatile long redisRetryAt;
+
+    public RedisRateLimitEngine(StringRedisTemplate redisTemplate,
+                                @Value("${app.rate-limit.redis.retry-after:5s}") Duration retryAfter) {
+        this(redisTemplate, ZoneId.systemDefault(), retryAfter);
+    }
+
+    RedisRateLimitEngine(StringRedisTemplate redisTemplate, ZoneId zone, Duration retryAfter) {
+        this.redisTemplate = redisTemplate;
+        this.zone = zone;
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(Long userId, LimitType limitType, LocalDate window, int limit) {
+        String key = key(userId, limitType, window);
+        if (redisAvailable()) {
+            try {
+                List<?> result = redisTemplate.execute(ACQUIRE_SCRIPT, List.of(key),
+                        String.valueOf(limit), String.valueOf(windowEnd(window)));
+                boolean allowed = ((Number) result.get(0)).longValue() == 1;
+                int used = ((Number) result.get(1)).intValue();
+                remember(key, used);
+                return new RateLimitDecision(allowed, used, limit);
+            } catch (DataAccessException e) {
+                markUnavailable(e);
+            }
+        }
+        return tryAcquireLocally(key, limit);
+    }
+
+    @Override
+    public int getUsed(Long userId, LimitType limitType, LocalDate window) {
+        String key = key(userId, limitType, window);
+        if (redisAvailable()) {
+            try {
+                String value = redisTemplate.opsForValue().get(key);
+                int used = value != null ? Integer.parseInt(value) : 0;
+                remember(key, used);
+                return used;
+            } catch (DataAccessException e) {
+                markUnavailable(e);
+            }
+        }
+        AtomicInteger local = localCounts.get(key);
+        return local != null ? local.get() : 0;
+    }
+
+    @Override
+    public String getEngineName() {
+        return "redis";
+    }
+
+    // Local counts for past windows are never read again
+    @Scheduled(cron = "${app.rate-limit.redis.prune-cron:0 5 0 * * *}")
+    public void pruneLocalCounts() {
+        String today = LocalDate.now(zone).toString();
+        localCounts.keySet().removeIf(key -> key.substring(key.lastIndexOf(':') + 1).compareTo(today) < 0);
+    }
+
+    private RateLimitDecision tryAcquireLocally(String key, int limit) {
+        AtomicInteger counter = localCounts.computeIfAbsent(key, k -> new AtomicInteger());
+        while (true) {
+            int used = counter.get();
+            if (used >= limit) {
+                return new RateLimitDecision(false, used, limit);
+            }
+            if (counter.compareAndSet(used, used + 1)) {
+                return new RateLimitDecision(true, used + 1, limit);
+            }
+        }
+    }
+
+    private void remember(String key, int used) {
+        localCounts.computeIfAbsent(key, k -> new AtomicInteger()).accumulateAndGet(used, Math::max);
+    }
+
+    private boolean redisAvailable() {
+        return System.currentTimeMillis() >= redisRetryAt;
+    }
+
+    private void markUnavailable(DataAccessException e) {
+        log.warn("Redis rate limiting unavailable, using local counters for {}: {}", retryAfter, e.getMessage());
+        redisRetryAt = System.currentTimeMillis() + retryAfter.toMillis();
+    }
+
+    private long windowEnd(LocalDate window) {
+        return window.plusDays(1).atStartOfDay(zone).toEpochSecond();
+    }
+
+    static String key(Long userId, LimitType limitType, LocalDate window) {
+        return KEY_PREFIX + userId + ":" + limitType.name() + ":" + window;
+    }
+}
@@ -0,0 +1,44 @@
+package com.finance.aiexpense.repository;
+
+import com.finance.aiexpense.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+
+    // 1 = this transaction owns the key. 0 = the key is taken; if its owner is still running,
+    // Postgres blocks here until that transaction commits or rolls back
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (user_id, idempotency_key, request_fingerprint, created_at) " +
+            "VALUES (:userId, :key, :fingerprint, now()) " +
+            "ON CONFLICT (user_id, idempotency_key) DO NOTHING",
+            nativeQuery = true)
+    int claim(
+            @Param("userId") Long userId,
+            @Param("key") String key,
+            @Param("fingerprint") String fingerprint);
+
+    @Modifying
+    @Query(value = "UPDATE idempotency_keys SET response_body = :responseBody " +
+            "WHERE user_id = :userId AND idempotency_key = :key",
+            nativeQuery = true)
+    int storeResponse(
+            @Param("userId") Long userId,
+            @Param("key") String key,
+            @Param("responseBody") String responseBody);
+
+    Optional<IdempotencyKey> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,97 @@
+package com.finance.aiexpense.repository;
+
+import com.finance.aiexpense.dto.CategorySpendingDTO;
+import com.finance.aiexpense.entity.MonthlyCategoryTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface MonthlyCategoryTotalRepository extends JpaRepository<MonthlyCategoryTotal, Long> {
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO user_monthly_category_totals " +
+            "(user_id, month_start, category, total_amount, transaction_count) " +
+            "VALUES (:userId, :monthStart, :category, :amount, :count) " +
+            "ON CONFLICT (user_id, month_start, category) DO UPDATE SET " +
+            "total_amount = user_monthly_category_totals.total_amount + EXCLUDED.total_amount, " +
+            "transaction_count = user_monthly_category_totals.transaction_count + EXCLUDED.transaction_count",
+            nativeQuery = true)
+    void applyDelta(
+            @Param("userId") Long userId,
+            @Param("monthStart") LocalDate monthStart,
+            @Param("category") String category,
+            @Param("amount") double amount,
+            @Param("count") long count);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM user_monthly_category_totals " +
+            "WHERE user_id = :userId AND month_start = :monthStart AND category = :category " +
+            "AND transaction_count <= 0",
+            nativeQuery = true)
+    void deleteIfEmpty(
+            @Param("userId") Long userId,
+            @Param("monthStart") LocalDate monthStart,
+            @Param("category") String category);
+
+    @Query("SELECT new com.finance.aiexpense.dto.CategorySpendingDTO(" +
+            "m.category, SUM(m.totalAmount), SUM(m.transactionCount)) " +
+            "FROM MonthlyCategoryTotal m WHERE m.user.id = :userId AND m.monthStart >= :fromMonth " +
+            "GROUP BY m.category ORDER BY SUM(m.totalAmount) DESC")
+    List<CategorySpendingDTO> sumByCategorySince(
+            @Param("userId") Long userId,
+            @Param("fromMonth") LocalDate fromMonth);
+
+    @Query("SELECT new com.finance.aiexpense.dto.CategorySpendingDTO(" +
+            "m.category, SUM(m.totalAmount), SUM(m.transactionCount)) " +
+            "FROM MonthlyCategoryTotal m WHERE m.user.id = :userId " +
+            "GROUP BY m.category ORDER BY SUM(m.totalAmount) DESC")
+    List<CategorySpendingDTO> sumByCategory(@Param("userId") Long userId);
+
+    // --- Repair: recompute from the transactions table ---
+
+    // Serializes full rebuilds across replicas; released when the calling transaction ends
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:lockKey)", nativeQuery = true)
+    Integer lockForRebuild(@Param("lockKey") long lockKey);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM user_monthly_category_totals WHERE user_id = :userId", nativeQuery = true)
+    void deleteByUserId(@Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO user_monthly_category_totals " +
+            "(user_id, month_start, category, total_amount, transaction_count) " +
+            "SELECT t.user_id, CAST(date_trunc('month', t.date) AS date), COALESCE(t.category, 'Others'), " +
+            "SUM(t.amount), COUNT(*) " +
+            "FROM transactions t WHERE t.user_id = :userId GROUP BY 1, 2, 3",
+            nativeQuery = true)
+    int rebuildForUser(@Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM user_monthly_category_totals", nativeQuery = true)
+    void deleteAllRows();
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO user_monthly_category_totals " +
+            "(user_id, month_start, category, total_amount, transaction_count) " +
+            "SELECT t.user_id, CAST(date_trunc('month', t.date) AS date), COALESCE(t.category, 'Others'), " +
+            "SUM(t.amount), COUNT(*) " +
+            "FROM transactions t GROUP BY 1, 2, 3 " +
+            // An applyDelta racing the rebuild may have inserted the key since the DELETE
+            "ON CONFLICT (user_id, month_start, category) DO UPDATE SET " +
+            "total_amount = EXCLUDED.total_amount, transaction_count = EXCLUDED.transaction_count",
+            nativeQuery = true)
+    int rebuildAllRows();
+}
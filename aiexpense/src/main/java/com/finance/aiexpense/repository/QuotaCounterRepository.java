@@ -0,0 +1,98 @@
+package com.finance.aiexpense.repository;
+
+import com.finance.aiexpense.entity.QuotaCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface QuotaCounterRepository extends JpaRepository<QuotaCounter, Long> {
+
+    // Check and increment in one statement; 0 rows means over the limit or no counter yet
+    @Modifying
+    @Query(value = "UPDATE quota_counters SET used = used + :amount, updated_at = now() " +
+            "WHERE user_id = :userId AND limit_type = :limitType AND period = :period " +
+            "AND period_start = :periodStart AND used + :amount <= :limit",
+            nativeQuery = true)
+    int tryConsume(
+            @Param("userId") Long userId,
+            @Param("limitType") String limitType,
+            @Param("period") String period,
+            @Param("periodStart") LocalDate periodStart,
+            @Param("amount") long amount,
+            @Param("limit") long limit);
+
+    @Modifying
+    @Query(value = "UPDATE quota_counters SET used = GREATEST(used - :amount, 0), updated_at = now() " +
+            "WHERE user_id = :userId AND limit_type = :limitType AND period = :period " +
+            "AND period_start = :periodStart",
+            nativeQuery = true)
+    int release(
+            @Param("userId") Long userId,
+            @Param("limitType") String limitType,
+            @Param("period") String period,
+            @Param("periodStart") LocalDate periodStart,
+            @Param("amount") long amount);
+
+    @Query(value = "SELECT used FROM quota_counters " +
+            "WHERE user_id = :userId AND limit_type = :limitType AND period = :period " +
+            "AND period_start = :periodStart",
+            nativeQuery = true)
+    Optional<Long> findUsed(
+            @Param("userId") Long userId,
+            @Param("limitType") String limitType,
+            @Param("period") String period,
+            @Param("periodStart") LocalDate periodStart);
+
+    // --- Seeding: a counter's first row starts from the real count, once ---
+
+    @Modifying
+    @Query(value = "INSERT INTO quota_counters " +
+            "(user_id, limit_type, period, period_start, period_end, used, updated_at) " +
+            "SELECT :userId, 'TRANSACTION', :period, :periodStart, :periodEnd, COUNT(*), now() " +
+            "FROM transactions t WHERE t.user_id = :userId " +
+            "AND t.created_at >= :periodStart AND t.created_at < :periodEnd " +
+            "ON CONFLICT (user_id, limit_type, period, period_start) DO NOTHING",
+            nativeQuery = true)
+    int seedTransactionCounter(
+            @Param("userId") Long userId,
+            @Param("period") String period,
+            @Param("periodStart") LocalDate periodStart,
+            @Param("periodEnd") LocalDate periodEnd);
+
+    @Modifying
+    @Query(value = "INSERT INTO quota_counters " +
+            "(user_id, limit_type, period, period_start, period_end, used, updated_at) " +
+            "VALUES (:userId, :limitType, :period, :periodStart, :periodEnd, 0, now()) " +
+            "ON CONFLICT (user_id, limit_type, period, period_start) DO NOTHING",
+            nativeQuery = true)
+    int seedEmptyCounter(
+            @Param("userId") Long userId,
+            @Param("limitType") String limitType,
+            @Param("period") String period,
+            @Param("periodStart") LocalDate periodStart,
+            @Param("periodEnd") LocalDate periodEnd);
+
+    // --- Reconciliation ---
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE quota_counters q SET used = c.actual, updated_at = now() " +
+            "FROM (SELECT q2.id, (SELECT COUNT(*) FROM transactions t WHERE t.user_id = q2.user_id " +
+            "AND t.created_at >= q2.period_start AND t.created_at < q2.period_end) AS actual " +
+            "FROM quota_counters q2 WHERE q2.limit_type = 'TRANSACTION' AND q2.period_end > :today) c " +
+            "WHERE q.id = c.id AND q.used <> c.actual",
+            nativeQuery = true)
+    int reconcileTransactionCounters(@Param("today") LocalDate today);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM quota_counters WHERE period_end <= :today", nativeQuery = true)
+    int deleteExpired(@Param("today") LocalDate today);
+}
@@ -4,9 +4,14 @@ import com.finance.aiexpense.entity.LimitType;
 import com.finance.aiexpense.entity.RateLimit;
 import com.finance.aiexpense.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +19,27 @@ public interface RateLimitRepository extends JpaRepository<RateLimit, Long> {
 
     Optional<RateLimit> findByUserAndLimitTypeAndDate(
             User user, LimitType limitType, LocalDate date);
+
+    @Query("SELECT r.requestCount FROM RateLimit r " +
+            "WHERE r.user.id = :userId AND r.limitType = :limitType AND r.date = :date")
+    Optional<Integer> findRequestCount(
+            @Param("userId") Long userId,
+            @Param("limitType") LimitType limitType,
+            @Param("date") LocalDate date);
+
+    // Counts only move forward: a late or duplicate flush can never lower a stored count
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO rate_limits (user_id, limit_type, date, request_count, last_request_time) " +
+            "VALUES (:userId, :limitType, :date, :count, :lastRequestTime) " +
+            "ON CONFLICT (user_id, limit_type, date) DO UPDATE SET " +
+            "request_count = GREATEST(rate_limits.request_count, EXCLUDED.request_count), " +
+            "last_request_time = COALESCE(EXCLUDED.last_request_time, rate_limits.last_request_time)",
+            nativeQuery = true)
+    void upsertRequestCount(
+            @Param("userId") Long userId,
+            @Param("limitType") String limitType,
+            @Param("date") LocalDate date,
+            @Param("count") int count,
+            @Param("lastRequestTime") LocalDateTime lastRequestTime);
 }
@@ -1,23 +1,63 @@
 package com.finance.aiexpense.repository;
 
+import com.finance.aiexpense.dto.TransactionDTO;
 import com.finance.aiexpense.entity.Transaction;
 import com.finance.aiexpense.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
-import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
-    List<Transaction> findByUserOrderByDateDesc(User user);
+    // Read path projects straight into the DTO: no entity, no User proxy, no mapper
+    String DTO_SELECT = "SELECT new com.finance.aiexpense.dto.TransactionDTO(" +
+            "t.id, t.description, t.amount, t.date, t.category, t.paymentMode) FROM Transaction t ";
 
-    List<Transaction> findByUserAndDateBetweenOrderByDateDesc(
-            User user, LocalDate startDate, LocalDate endDate);
+    @Query(DTO_SELECT + "WHERE t.user.id = :userId ORDER BY t.date DESC, t.id DESC")
+    List<TransactionDTO> findDtosByUserId(@Param("userId") Long userId);
+
+    // Keyset pagination, served by idx_transactions_user_date_id
+    @Query(DTO_SELECT + "WHERE t.user.id = :userId ORDER BY t.date DESC, t.id DESC")
+    List<TransactionDTO> findDtoPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(DTO_SELECT + "WHERE t.user.id = :userId " +
+            "AND (t.date < :date OR (t.date = :date AND t.id < :id)) " +
+            "ORDER BY t.date DESC, t.id DESC")
+    List<TransactionDTO> findDtoPageAfter(
+            @Param("userId") Long userId,
+            @Param("date") LocalDate date,
+            @Param("id") Long id,
+            Pageable pageable);
+
+    // Cursor-backed stream for exports; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(DTO_SELECT + "WHERE t.user.id = :userId ORDER BY t.date DESC, t.id DESC")
+    Stream<TransactionDTO> streamDtosByUserId(@Param("userId") Long userId);
+
+    @Query(DTO_SELECT + "WHERE t.user.id = :userId " +
+            "AND t.date BETWEEN :startDate AND :endDate ORDER BY t.date DESC")
+    List<TransactionDTO> findDtosByUserIdAndDateBetween(
+            @Param("userId") Long userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    @Query(DTO_SELECT + "WHERE t.user.id = :userId AND t.date > :fromDate ORDER BY t.date DESC")
+    List<TransactionDTO> findDtosByUserIdAndDateAfter(
+            @Param("userId") Long userId,
+            @Param("fromDate") LocalDate fromDate);
 
     @Query("SELECT t FROM Transaction t WHERE t.user = :user " +
             "AND t.date >= :startDate ORDER BY t.date DESC")
@@ -39,6 +79,4 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             @Param("user") User user,
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate);
-
-    List<Transaction> findByUserAndDateAfterOrderByDateDesc(User user, LocalDate fromDate);
-}
\ No newline at end of file
+}
@@ -0,0 +1,9 @@
+package com.finance.aiexpense.repository;
+
+import com.finance.aiexpense.entity.UserInsight;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserInsightRepository extends JpaRepository<UserInsight, Long> {
+}
@@ -4,6 +4,7 @@ import com.finance.aiexpense.entity.User;
 import com.finance.aiexpense.enums.AuthProvider;
 import com.finance.aiexpense.entity.Role;
 import com.finance.aiexpense.repository.UserRepository;
+import com.finance.aiexpense.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
@@ -20,6 +21,7 @@ import java.util.Optional;
 public class CustomOAuth2UserService extends DefaultOAuth2UserService {
 
     private final UserRepository userRepository;
+    private final UserService userService;
 
     @Override
     public OAuth2User loadUser(OAuth2UserRequest userRequest) throws OAuth2AuthenticationException {
@@ -81,6 +83,7 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
                 user.setProvider(AuthProvider.valueOf(registrationId.toUpperCase()));
                 user.setProviderId(providerId);
                 userRepository.save(user);
+                userService.evictPrincipal(email);
                 log.info("Updated user with OAuth2 info: {}", email);
             }
         }
@@ -0,0 +1,182 @@
+package com.finance.aiexpense.service;
+
+import com.finance.aiexpense.config.GeminiConfig;
+import com.finance.aiexpense.enums.AIFeature;
+import com.finance.aiexpense.util.SingleFlight;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Front door for Gemini calls that may be answered from cache.
+ * <p>
+ * Entries are content-addressed: the key is a SHA-256 of the model, the generation config and the
+ * normalized prompt, so different prompts can't share an answer the way the old
+ * {@code prompt.hashCode()} key could, and a model or config change naturally misses. Only resolved
+ * model text is stored - never futures, circuit-breaker fallbacks or parse-error placeholders.
+ * Concurrent misses for the same key are coalesced into a single Gemini call.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AIResponseCache {
+
+    private final GeminiService geminiService;
+    private final GeminiConfig geminiConfig;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${gemini.api.response-cache.maximum-size:10000}")
+    private long maximumSize = 10_000;
+
+    @Value("${gemini.api.response-cache.ttl:24h}")
+    private Duration ttl = Duration.ofHours(24);
+
+    // Upper bound for callers sharing one in-flight call; a bit above the geminiAI TimeLimiter
+    @Value("${gemini.api.response-cache.in-flight-timeout:15s}")
+    private Duration inFlightTimeout = Duration.ofSeconds(15);
+
+    private Cache<String, String> cache;
+    private SingleFlight<String, String> inFlight;
+    private final Map<AIFeature, Counter> hits = new EnumMap<>(AIFeature.class);
+    private final Map<AIFeature, Counter> misses = new EnumMap<>(AIFeature.class);
+    private final Map<AIFeature, Counter> coalesced = new EnumMap<>(AIFeature.class);
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "aiResponses");
+        inFlight = new SingleFlight<>(inFlightTimeout);
+        Gauge.builder("ai.cache.in.flight", inFlight, SingleFlight::inFlightCount)
+                .description("Distinct prompts currently waiting on Gemini")
+                .register(meterRegistry);
+
+        for (AIFeature feature : AIFeature.values()) {
+            hits.put(feature, requestCounter(feature, "hit"));
+            misses.put(feature, requestCounter(feature, "miss"));
+            coalesced.put(feature, requestCounter(feature, "coalesced"));
+        }
+    }
+
+    public CompletableFuture<String> getOrGenerate(AIFeature feature, String prompt) {
+        String key = keyFor(prompt);
+        String cached = cache.getIfPresent(key);
+        if (cached != null) {
+            hits.get(feature).increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        // Identical prompts already waiting on Gemini share that call instead of stampeding it
+        boolean[] leader = {false};
+        CompletableFuture<String> result = inFlight.execute(key, () -> {
+            leader[0] = true;
+            misses.get(feature).increment();
+            return geminiService.generateContent(prompt)
+                    .thenApply(text -> {
+                        if (GeminiService.isGeneratedResponse(text)) {
+                            cache.put(key, text);
+                        }
+                        return text;
+                    });
+        });
+        if (!leader[0]) {
+            coalesced.get(feature).increment();
+        }
+        return result;
+    }
+
+    /**
+     * Streaming variant of {@link #getOrGenerate}: a hit is delivered as a single chunk, a miss streams
+     * from Gemini and stores the assembled text once the stream has finished. Streams are not
+     * coalesced - every caller needs its own fragments as they arrive.
+     */
+    public CompletableFuture<String> stream(AIFeature feature, String prompt, Consumer<String> onChunk) {
+        String key = keyFor(prompt);
+        String cached = cache.getIfPresent(key);
+        if (cached != null) {
+            hits.get(feature).increment();
+            onChunk.accept(cached);
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        misses.get(feature).increment();
+        return geminiService.streamContent(prompt, onChunk)
+                .thenApply(text -> {
+                    if (GeminiService.isGeneratedResponse(text)) {
+                        cache.put(key, text);
+                    }
+                    return text;
+                });
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    String keyFor(String prompt) {
+        MessageDigest digest = sha256();
+        update(digest, geminiConfig.getModel());
+        update(digest, String.valueOf(geminiConfig.getGenerationConfig()));
+        update(digest, normalize(prompt));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Whitespace-only differences (CRLF, trailing spaces, outer padding) don't change the answer
+    static String normalize(String prompt) {
+        String text = Normalizer.normalize(prompt, Normalizer.Form.NFC).replace("\r\n", "\n");
+        StringBuilder normalized = new StringBuilder(text.length());
+        for (String line : text.split("\n", -1)) {
+            if (normalized.length() > 0) {
+                normalized.append('\n');
+            }
+            normalized.append(line.stripTrailing());
+        }
+        return normalized.toString().strip();
+    }
+
+    private void update(MessageDigest digest, String part) {
+        byte[] bytes = part == null ? new byte[0] : part.getBytes(StandardCharsets.UTF_8);
+        // Length-prefix each part so ("ab","c") and ("a","bc") can't hash the same
+        digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.US_ASCII));
+        digest.update((byte) ':');
+        digest.update(bytes);
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private Counter requestCounter(AIFeature feature, String result) {
+        return Counter.builder("ai.cache.requests")
+                .description("AI response cache lookups")
+                .tag("feature", feature.getTag())
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -2,80 +2,91 @@ package com.finance.aiexpense.service;
 
 import com.finance.aiexpense.dto.*;
 import com.finance.aiexpense.entity.User;
+import com.finance.aiexpense.enums.AIFeature;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+/**
+ * AI features behind the /api/ai endpoints.
+ * <p>
+ * Every method returns a future that completes on the Gemini executor. The request-path methods
+ * never complete exceptionally: failures are mapped to the same fallback answers as before, so the
+ * controller can hand the future straight back to Spring MVC without parking a servlet thread on it.
+ * The exceptions are {@link #generateModelInsights}, which fails with the Gemini error so the
+ * background refresh can keep the stored insight, and {@link #streamChatWithAI} once fragments
+ * have been sent.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AIService {
 
-    private final GeminiService geminiService;
-    private final TransactionService transactionService;
+    private static final String CHAT_FALLBACK_MESSAGE =
+            "I'm having trouble processing your request. Please try asking in a different way.";
+    private static final String NO_INSIGHT_DATA_MESSAGE = "No transaction data available for insights.";
 
-    public AIAnalysisResponse analyzeTransactions(List<TransactionDTO> transactions) {
+    private final AIResponseCache aiResponseCache;
+    private final SpendingRollupService spendingRollupService;
+    private final BatchCategorizationService batchCategorizationService;
+
+    public CompletableFuture<AIAnalysisResponse> analyzeTransactions(List<TransactionDTO> transactions) {
         if (transactions == null || transactions.isEmpty()) {
-            return AIAnalysisResponse.builder()
+            return CompletableFuture.completedFuture(AIAnalysisResponse.builder()
                     .categorizedTransactions(new ArrayList<>())
                     .summary("No transactions to analyze.")
-                    .build();
+                    .build());
         }
 
-        String transactionText = transactions.stream()
-                .map(t -> String.format("%s: ₹%.2f", t.getDescription(), t.getAmount()))
-                .collect(Collectors.joining("\n"));
-
-        String prompt = String.format(
-                "Analyze and categorize these financial transactions. " +
-                        "For each transaction, assign ONE category from: Food, Travel, Groceries, " +
-                        "Shopping, Entertainment, Utilities, Healthcare, Education, Others.\n\n" +
-                        "Transactions:\n%s\n\n" +
-                        "Provide response in this exact JSON format:\n" +
-                        "{\n" +
-                        "  \"categorizedTransactions\": [\n" +
-                        "    {\"transaction\": \"description amount\", \"category\": \"Category\"}\n" +
-                        "  ],\n" +
-                        "  \"summary\": \"Brief 2-sentence spending summary\"\n" +
-                        "}",
-                transactionText
-        );
+        // Chunked, bounded fan-out; failed chunks already fall back to keyword rules individually
+        return withFallback(() -> batchCategorizationService.categorize(transactions))
+                .exceptionally(e -> {
+                    log.error("AI analysis failed, using fallback", e);
+                    return batchCategorizationService.fallbackAnalysis(transactions);
+                });
+    }
 
-        try {
-            String aiResponse = geminiService.generateContent(prompt).join(); // ✅ fixed
-            return parseAIResponse(aiResponse, transactions);
-        } catch (Exception e) {
-            log.error("AI analysis failed, using fallback", e);
-            return createFallbackAnalysis(transactions);
+    /**
+     * Insight text straight from the model, without the template fallback: failures propagate and
+     * circuit-breaker answers come back as the canned {@link GeminiService} messages, so callers
+     * that store the result can tell them apart with {@link GeminiService#isGeneratedResponse}.
+     */
+    public CompletableFuture<String> generateModelInsights(User user) {
+        List<CategorySpendingDTO> categoryTotals = insightTotals(user);
+        if (categoryTotals.isEmpty()) {
+            return CompletableFuture.completedFuture(NO_INSIGHT_DATA_MESSAGE);
         }
+        return withFallback(() -> modelInsights(categoryTotals));
     }
 
-    public String generateInsights(User user) {
-        List<TransactionDTO> recentTransactions = transactionService.getRecentTransactions(user, 3);
-
-        if (recentTransactions.isEmpty()) {
-            return "No transaction data available for insights.";
-        }
+    // Current month plus the two before it, read from the monthly rollup
+    private List<CategorySpendingDTO> insightTotals(User user) {
+        return spendingRollupService.getCategoryTotalsSince(user, YearMonth.now().minusMonths(2));
+    }
 
-        double totalSpending = recentTransactions.stream()
-                .mapToDouble(TransactionDTO::getAmount)
+    private static double totalSpending(List<CategorySpendingDTO> categoryTotals) {
+        return categoryTotals.stream()
+                .mapToDouble(CategorySpendingDTO::getTotalAmount)
                 .sum();
+    }
 
-        Map<String, Double> categoryTotals = recentTransactions.stream()
-                .collect(Collectors.groupingBy(
-                        t -> t.getCategory() != null ? t.getCategory() : "Others",
-                        Collectors.summingDouble(TransactionDTO::getAmount)
-                ));
+    private CompletableFuture<String> modelInsights(List<CategorySpendingDTO> categoryTotals) {
+        double totalSpending = totalSpending(categoryTotals);
 
-        String categoryBreakdown = categoryTotals.entrySet().stream()
-                .sorted((e1, e2) -> e2.getValue().compareTo(e1.getValue()))
+        String categoryBreakdown = categoryTotals.stream()
+                .sorted((c1, c2) -> c2.getTotalAmount().compareTo(c1.getTotalAmount()))
                 .limit(5)
-                .map(e -> String.format("%s: ₹%.2f", e.getKey(), e.getValue()))
+                .map(c -> String.format("%s: ₹%.2f", c.getCategory(), c.getTotalAmount()))
                 .collect(Collectors.joining(", "));
 
         String prompt = String.format(
@@ -90,20 +101,59 @@ public class AIService {
                 totalSpending, categoryBreakdown
         );
 
-        try {
-            return geminiService.generateContent(prompt).join(); // ✅ fixed
-        } catch (Exception e) {
-            log.error("Insight generation failed", e);
-            return generateFallbackInsight(totalSpending, categoryTotals);
-        }
+        return aiResponseCache.getOrGenerate(AIFeature.INSIGHTS, prompt);
     }
 
-    public String chatWithAI(String query, User user) {
-        List<TransactionDTO> transactions = transactionService.getAllTransactions(user);
+    public CompletableFuture<String> chatWithAI(String query, User user) {
+        String prompt = buildChatPrompt(query, user);
 
-        String context = buildTransactionContext(transactions);
+        return withFallback(() -> aiResponseCache.getOrGenerate(AIFeature.CHAT, prompt))
+                .exceptionally(e -> {
+                    log.error("Chat failed", e);
+                    return CHAT_FALLBACK_MESSAGE;
+                });
+    }
 
-        String prompt = String.format(
+    /**
+     * Same answer as {@link #chatWithAI}, delivered to {@code onChunk} fragment by fragment. Uses the
+     * same prompt, so streamed and non-streamed chats share cache entries.
+     * <p>
+     * If the call fails before anything was sent, the usual fallback text is sent instead. If it fails
+     * part-way through, the future completes exceptionally so the caller can end the stream with an error.
+     */
+    public CompletableFuture<String> streamChatWithAI(String query, User user, Consumer<String> onChunk) {
+        String prompt = buildChatPrompt(query, user);
+
+        AtomicBoolean sent = new AtomicBoolean();
+        Consumer<String> tracking = chunk -> {
+            sent.set(true);
+            onChunk.accept(chunk);
+        };
+
+        return withFallback(() -> aiResponseCache.stream(AIFeature.CHAT, prompt, tracking))
+                .handle((text, e) -> {
+                    if (e == null) {
+                        // Canned texts (e.g. no candidates) arrive without any fragments
+                        if (!sent.get()) {
+                            onChunk.accept(text);
+                        }
+                        return text;
+                    }
+                    if (sent.get()) {
+                        throw e instanceof CompletionException ce ? ce : new CompletionException(e);
+                    }
+                    log.error("Chat stream failed", e);
+                    onChunk.accept(CHAT_FALLBACK_MESSAGE);
+                    return CHAT_FALLBACK_MESSAGE;
+                });
+    }
+
+    private String buildChatPrompt(String query, User user) {
+        List<CategorySpendingDTO> categoryTotals = spendingRollupService.getAllTimeCategoryTotals(user);
+
+        String context = buildTransactionContext(categoryTotals);
+
+        return String.format(
                 "You are a helpful personal finance assistant. Answer the user's question " +
                         "based on their transaction data. Be concise and friendly.\n\n" +
                         "Transaction Summary:\n%s\n\n" +
@@ -111,141 +161,37 @@ public class AIService {
                         "Provide a clear, helpful answer in 2-3 sentences.",
                 context, query
         );
-
-        try {
-            return geminiService.generateContent(prompt).join(); // ✅ fixed
-        } catch (Exception e) {
-            log.error("Chat failed", e);
-            return "I'm having trouble processing your request. Please try asking in a different way.";
-        }
     }
 
-    private String buildTransactionContext(List<TransactionDTO> transactions) {
-        if (transactions.isEmpty()) {
+    String buildTransactionContext(List<CategorySpendingDTO> categoryTotals) {
+        if (categoryTotals.isEmpty()) {
             return "No transactions available.";
         }
 
-        double total = transactions.stream()
-                .mapToDouble(TransactionDTO::getAmount)
+        long count = categoryTotals.stream()
+                .mapToLong(CategorySpendingDTO::getTransactionCount)
                 .sum();
 
-        Map<String, Double> categoryTotals = transactions.stream()
-                .collect(Collectors.groupingBy(
-                        t -> t.getCategory() != null ? t.getCategory() : "Others",
-                        Collectors.summingDouble(TransactionDTO::getAmount)
-                ));
+        double total = categoryTotals.stream()
+                .mapToDouble(CategorySpendingDTO::getTotalAmount)
+                .sum();
 
         StringBuilder context = new StringBuilder();
-        context.append(String.format("Total Transactions: %d\n", transactions.size()));
+        context.append(String.format("Total Transactions: %d\n", count));
         context.append(String.format("Total Spending: ₹%.2f\n", total));
         context.append("Category Breakdown:\n");
-        categoryTotals.forEach((cat, amt) ->
-                context.append(String.format("  - %s: ₹%.2f\n", cat, amt)));
+        categoryTotals.forEach(c ->
+                context.append(String.format("  - %s: ₹%.2f\n", c.getCategory(), c.getTotalAmount())));
 
         return context.toString();
     }
 
-    private AIAnalysisResponse parseAIResponse(String content, List<TransactionDTO> transactions) {
+    // A call that throws before it hands back a future (e.g. executor rejection) takes the same fallback path
+    private static <T> CompletableFuture<T> withFallback(Supplier<CompletableFuture<T>> call) {
         try {
-            int jsonStart = content.indexOf("{");
-            int jsonEnd = content.lastIndexOf("}") + 1;
-
-            if (jsonStart >= 0 && jsonEnd > jsonStart) {
-                String jsonStr = content.substring(jsonStart, jsonEnd);
-                com.fasterxml.jackson.databind.ObjectMapper mapper =
-                        new com.fasterxml.jackson.databind.ObjectMapper();
-                return mapper.readValue(jsonStr, AIAnalysisResponse.class);
-            }
-        } catch (Exception e) {
-            log.warn("Failed to parse AI JSON response, using fallback");
+            return call.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
-
-        return createFallbackAnalysis(transactions);
-    }
-
-    private AIAnalysisResponse createFallbackAnalysis(List<TransactionDTO> transactions) {
-        List<CategorizedTransaction> categorized = transactions.stream()
-                .map(t -> CategorizedTransaction.builder()
-                        .transaction(t.getDescription() + " ₹" + t.getAmount())
-                        .category(predictCategory(t.getDescription()))
-                        .build())
-                .collect(Collectors.toList());
-
-        double total = transactions.stream()
-                .mapToDouble(TransactionDTO::getAmount)
-                .sum();
-
-        Map<String, Double> categoryTotals = categorized.stream()
-                .collect(Collectors.groupingBy(
-                        CategorizedTransaction::getCategory,
-                        Collectors.summingDouble(ct -> {
-                            String amountStr = ct.getTransaction()
-                                    .replaceAll("[^0-9.]", "");
-                            return Double.parseDouble(amountStr);
-                        })
-                ));
-
-        String topCategory = categoryTotals.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse("Unknown");
-
-        String summary = String.format(
-                "Total spending: ₹%.2f across %d transactions. " +
-                        "Your highest expense category is %s (₹%.2f).",
-                total, transactions.size(), topCategory,
-                categoryTotals.getOrDefault(topCategory, 0.0)
-        );
-
-        return AIAnalysisResponse.builder()
-                .categorizedTransactions(categorized)
-                .summary(summary)
-                .build();
-    }
-
-    private String predictCategory(String description) {
-        String lower = description.toLowerCase();
-        if (lower.contains("uber") || lower.contains("ola") || lower.contains("taxi") ||
-                lower.contains("bus") || lower.contains("train"))
-            return "Travel";
-        if (lower.contains("zomato") || lower.contains("swiggy") || lower.contains("restaurant") ||
-                lower.contains("food") || lower.contains("cafe") || lower.contains("pizza"))
-            return "Food";
-        if (lower.contains("amazon") || lower.contains("flipkart") || lower.contains("myntra") ||
-                lower.contains("shopping"))
-            return "Shopping";
-        if (lower.contains("bazaar") || lower.contains("grocery") || lower.contains("supermarket") ||
-                lower.contains("vegetables") || lower.contains("dmart"))
-            return "Groceries";
-        if (lower.contains("netflix") || lower.contains("spotify") || lower.contains("prime") ||
-                lower.contains("movie") || lower.contains("game"))
-            return "Entertainment";
-        if (lower.contains("electricity") || lower.contains("water") || lower.contains("gas") ||
-                lower.contains("bill") || lower.contains("recharge"))
-            return "Utilities";
-        if (lower.contains("hospital") || lower.contains("doctor") || lower.contains("medicine") ||
-                lower.contains("pharmacy") || lower.contains("clinic"))
-            return "Healthcare";
-        if (lower.contains("school") || lower.contains("course") || lower.contains("book") ||
-                lower.contains("tuition") || lower.contains("education"))
-            return "Education";
-        return "Others";
-    }
-
-    private String generateFallbackInsight(double total, Map<String, Double> categories) {
-        String topCategory = categories.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse("Unknown");
-
-        double topAmount = categories.getOrDefault(topCategory, 0.0);
-        double percentage = (topAmount / total) * 100;
-
-        return String.format(
-                "Over the last 3 months, you've spent ₹%.2f in total. " +
-                        "Your highest expense category is %s, accounting for %.1f%% of your spending. " +
-                        "Consider setting a monthly budget of ₹%.2f for %s to better control expenses.",
-                total, topCategory, percentage, topAmount * 0.8, topCategory
-        );
     }
 }
@@ -0,0 +1,253 @@
+package com.finance.aiexpense.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finance.aiexpense.dto.AIAnalysisResponse;
+import com.finance.aiexpense.dto.CategorizedTransaction;
+import com.finance.aiexpense.dto.TransactionDTO;
+import com.finance.aiexpense.enums.AIFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Categorizes transactions with Gemini in token-budgeted chunks.
+ * <p>
+ * Chunks are spread round-robin over at most {@code max-parallel-chunks} lanes; each lane sends its
+ * next chunk only when the previous one has finished, so no more than that many Gemini calls are in
+ * flight per request. A chunk that fails, times out or returns something unusable is categorized
+ * with the keyword rules on its own - the rest of the request keeps its AI categories.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchCategorizationService {
+
+    static final List<String> CATEGORIES = List.of(
+            "Food", "Travel", "Groceries", "Shopping", "Entertainment",
+            "Utilities", "Healthcare", "Education", "Others");
+
+    // Rough chars-per-token for English text; good enough for budgeting
+    private static final int CHARS_PER_TOKEN = 4;
+    // One quoted category name plus separator in the JSON array answer
+    private static final int OUTPUT_TOKENS_PER_TRANSACTION = 6;
+    private static final int PROMPT_OVERHEAD_TOKENS = 120;
+
+    private final AIResponseCache aiResponseCache;
+    private final TransactionCategorizer transactionCategorizer;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.ai.categorization.max-input-tokens-per-chunk:6000}")
+    private int maxInputTokensPerChunk = 6000;
+
+    // Must stay under the maxOutputTokens sent to Gemini (2048)
+    @Value("${app.ai.categorization.max-output-tokens-per-chunk:1500}")
+    private int maxOutputTokensPerChunk = 1500;
+
+    @Value("${app.ai.categorization.max-transactions-per-chunk:100}")
+    private int maxTransactionsPerChunk = 100;
+
+    @Value("${app.ai.categorization.max-parallel-chunks:4}")
+    private int maxParallelChunks = 4;
+
+    public CompletableFuture<AIAnalysisResponse> categorize(List<TransactionDTO> transactions) {
+        List<List<TransactionDTO>> chunks = chunk(transactions);
+        List<CompletableFuture<List<CategorizedTransaction>>> results = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            results.add(null);
+        }
+
+        AtomicInteger fallbackChunks = new AtomicInteger();
+        int lanes = Math.max(1, Math.min(maxParallelChunks, chunks.size()));
+        for (int lane = 0; lane < lanes; lane++) {
+            CompletableFuture<List<CategorizedTransaction>> tail = CompletableFuture.completedFuture(null);
+            for (int index = lane; index < chunks.size(); index += lanes) {
+                int chunkIndex = index;
+                tail = tail.thenCompose(previous -> categorizeChunk(chunkIndex, chunks.get(chunkIndex), fallbackChunks));
+                results.set(chunkIndex, tail);
+            }
+        }
+
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+                .thenApply(done -> {
+                    List<CategorizedTransaction> merged = new ArrayList<>(transactions.size());
+                    results.forEach(result -> merged.addAll(result.join()));
+                    if (fallbackChunks.get() > 0) {
+                        log.info("Categorized {} transactions in {} chunks, {} fell back to keyword rules",
+                                transactions.size(), chunks.size(), fallbackChunks.get());
+                    }
+                    return buildResponse(transactions, merged);
+                });
+    }
+
+    /** Keyword-only analysis for when the AI path can't be used at all. */
+    AIAnalysisResponse fallbackAnalysis(List<TransactionDTO> transactions) {
+        return buildResponse(transactions, fallbackChunk(transactions));
+    }
+
+    List<List<TransactionDTO>> chunk(List<TransactionDTO> transactions) {
+        List<List<TransactionDTO>> chunks = new ArrayList<>();
+        List<TransactionDTO> current = new ArrayList<>();
+        int inputTokens = PROMPT_OVERHEAD_TOKENS;
+        int outputTokens = 0;
+
+        for (TransactionDTO transaction : transactions) {
+            int lineTokens = estimateTokens(promptLine(current.size() + 1, transaction));
+            boolean full = current.size() >= maxTransactionsPerChunk
+                    || inputTokens + lineTokens > maxInputTokensPerChunk
+                    || outputTokens + OUTPUT_TOKENS_PER_TRANSACTION > maxOutputTokensPerChunk;
+            if (full && !current.isEmpty()) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                inputTokens = PROMPT_OVERHEAD_TOKENS;
+                outputTokens = 0;
+                lineTokens = estimateTokens(promptLine(1, transaction));
+            }
+            current.add(transaction);
+            inputTokens += lineTokens;
+            outputTokens += OUTPUT_TOKENS_PER_TRANSACTION;
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    private CompletableFuture<List<CategorizedTransaction>> categorizeChunk(
+            int index, List<TransactionDTO> chunk, AtomicInteger fallbackChunks) {
+        CompletableFuture<String> call;
+        try {
+            call = aiResponseCache.getOrGenerate(AIFeature.ANALYZE, buildPrompt(chunk));
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+
+        return call
+                .thenApply(response -> parseChunk(response, chunk))
+                .exceptionally(e -> {
+                    log.warn("Chunk {} ({} transactions) fell back to keyword rules: {}",
+                            index, chunk.size(), e.getMessage());
+                    fallbackChunks.incrementAndGet();
+                    return fallbackChunk(chunk);
+                });
+    }
+
+    private String buildPrompt(List<TransactionDTO> chunk) {
+        StringBuilder prompt = new StringBuilder(64 + chunk.size() * 48);
+        prompt.append("Categorize each numbered financial transaction into ONE category from: ")
+                .append(String.join(", ", CATEGORIES))
+                .append(".\n\nTransactions:\n");
+        for (int i = 0; i < chunk.size(); i++) {
+            prompt.append(promptLine(i + 1, chunk.get(i))).append('\n');
+        }
+        prompt.append("\nRespond with only a JSON array of exactly ")
+                .append(chunk.size())
+                .append(" category names in the same order as the transactions, e.g. [\"Food\", \"Travel\"].");
+        return prompt.toString();
+    }
+
+    private List<CategorizedTransaction> parseChunk(String response, List<TransactionDTO> chunk) {
+        int start = response.indexOf('[');
+        int end = response.lastIndexOf(']');
+        if (start < 0 || end <= start) {
+            throw new IllegalStateException("No JSON array in AI response");
+        }
+
+        String[] categories;
+        try {
+            categories = objectMapper.readValue(response.substring(start, end + 1), String[].class);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unparseable AI response", e);
+        }
+        if (categories.length != chunk.size()) {
+            throw new IllegalStateException("Expected " + chunk.size() + " categories, got " + categories.length);
+        }
+
+        List<CategorizedTransaction> categorized = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            TransactionDTO transaction = chunk.get(i);
+            String category = normalizeCategory(categories[i]);
+            if (category == null) {
+                // Single bad label: only this row falls back
+                category = transactionCategorizer.categorize(transaction.getDescription());
+            }
+            categorized.add(toCategorized(transaction, category));
+        }
+        return categorized;
+    }
+
+    private List<CategorizedTransaction> fallbackChunk(List<TransactionDTO> chunk) {
+        List<CategorizedTransaction> categorized = new ArrayList<>(chunk.size());
+        for (TransactionDTO transaction : chunk) {
+            categorized.add(toCategorized(transaction, transactionCategorizer.categorize(transaction.getDescription())));
+        }
+        return categorized;
+    }
+
+    private AIAnalysisResponse buildResponse(List<TransactionDTO> transactions,
+                                             List<CategorizedTransaction> categorized) {
+        double total = 0;
+        Map<String, Double> categoryTotals = new LinkedHashMap<>();
+        for (int i = 0; i < transactions.size(); i++) {
+            double amount = amountOf(transactions.get(i));
+            total += amount;
+            categoryTotals.merge(categorized.get(i).getCategory(), amount, Double::sum);
+        }
+
+        String topCategory = categoryTotals.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse("Unknown");
+
+        String summary = String.format(
+                "Total spending: ₹%.2f across %d transactions. " +
+                        "Your highest expense category is %s (₹%.2f).",
+                total, transactions.size(), topCategory,
+                categoryTotals.getOrDefault(topCategory, 0.0)
+        );
+
+        return AIAnalysisResponse.builder()
+                .categorizedTransactions(categorized)
+                .summary(summary)
+                .build();
+    }
+
+    private CategorizedTransaction toCategorized(TransactionDTO transaction, String category) {
+        return CategorizedTransaction.builder()
+                .transaction(transaction.getDescription() + " ₹" + transaction.getAmount())
+                .category(category)
+                .build();
+    }
+
+    private String normalizeCategory(String category) {
+        if (category == null) {
+            return null;
+        }
+        String trimmed = category.trim();
+        for (String known : CATEGORIES) {
+            if (known.equalsIgnoreCase(trimmed)) {
+                return known;
+            }
+        }
+        return null;
+    }
+
+    private String promptLine(int number, TransactionDTO transaction) {
+        return number + ". " + transaction.getDescription() + ": ₹" + String.format("%.2f", amountOf(transaction));
+    }
+
+    private double amountOf(TransactionDTO transaction) {
+        return transaction.getAmount() != null ? transaction.getAmount() : 0.0;
+    }
+
+    private int estimateTokens(String text) {
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+}
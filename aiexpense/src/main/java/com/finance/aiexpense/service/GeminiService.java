@@ -2,19 +2,28 @@ package com.finance.aiexpense.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finance.aiexpense.config.AIExecutorConfig;
 import com.finance.aiexpense.config.GeminiConfig;
 import com.finance.aiexpense.exception.AIServiceException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -23,11 +32,20 @@ public class GeminiService {
 
     private final GeminiConfig geminiConfig;
     private final RestTemplate restTemplate;
+    @Qualifier(AIExecutorConfig.GEMINI_EXECUTOR)
+    private final Executor geminiExecutor;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    // Canned texts returned instead of a model answer; never cached
+    public static final String FALLBACK_MESSAGE =
+            "⚠️ AI service is temporarily unavailable. " +
+                    "We're working to restore it. Please try again in a few moments. " +
+                    "Your request has been noted.";
+    public static final String NO_RESPONSE_MESSAGE = "No response generated";
+    public static final String PARSE_ERROR_MESSAGE = "Error parsing AI response";
+
     @CircuitBreaker(name = "geminiAI", fallbackMethod = "generateContentFallback")
     @TimeLimiter(name = "geminiAI")
-    @Cacheable(value = "aiResponses", key = "#prompt.hashCode()")
     public CompletableFuture<String> generateContent(String prompt) {
         return CompletableFuture.supplyAsync(() -> {
             try {
@@ -56,22 +74,57 @@ public class GeminiService {
                 log.error("Gemini API call failed", e);
                 throw new AIServiceException("AI service is temporarily unavailable", e);
             }
-        });
+        }, geminiExecutor);
+    }
+
+    /**
+     * Streams the answer from {@code streamGenerateContent?alt=sse}, handing each text fragment to
+     * {@code onChunk} as soon as Gemini sends it; the future completes with the assembled text.
+     * <p>
+     * No TimeLimiter and no canned fallback: a long answer is fine as long as fragments keep arriving
+     * within the HTTP response timeout, and once fragments have been forwarded a substitute answer
+     * would be wrong. A consumer that throws {@link CancellationException} (client went away) stops
+     * the read without counting against the circuit breaker.
+     */
+    @CircuitBreaker(name = "geminiAI")
+    public CompletableFuture<String> streamContent(String prompt, Consumer<String> onChunk) {
+        return CompletableFuture.supplyAsync(() -> {
+            String url = String.format("%s/models/%s:streamGenerateContent?alt=sse&key=%s",
+                    geminiConfig.getBaseUrl(),
+                    geminiConfig.getModel(),
+                    geminiConfig.getApiKey());
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+
+            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(buildRequest(prompt), headers);
+
+            return restTemplate.execute(
+                    url,
+                    HttpMethod.POST,
+                    restTemplate.httpEntityCallback(entity),
+                    response -> readStream(response.getBody(), onChunk)
+            );
+        }, geminiExecutor);
     }
 
     // Fallback method when circuit is open
     public CompletableFuture<String> generateContentFallback(String prompt, Exception e) {
         log.warn("Circuit breaker activated. Using fallback response. Error: {}", e.getMessage());
 
-        String fallbackMessage =
-                "⚠️ AI service is temporarily unavailable. " +
-                        "We're working to restore it. Please try again in a few moments. " +
-                        "Your request has been noted.";
+        return CompletableFuture.completedFuture(FALLBACK_MESSAGE);
+    }
 
-        return CompletableFuture.completedFuture(fallbackMessage);
+    /** True when the text is an actual model answer rather than one of the canned messages. */
+    public static boolean isGeneratedResponse(String text) {
+        return text != null
+                && !FALLBACK_MESSAGE.equals(text)
+                && !NO_RESPONSE_MESSAGE.equals(text)
+                && !PARSE_ERROR_MESSAGE.equals(text);
     }
 
-    private Map<String, Object> buildRequest(String prompt) {
+    Map<String, Object> buildRequest(String prompt) {
         Map<String, Object> request = new HashMap<>();
 
         List<Map<String, Object>> contents = new ArrayList<>();
@@ -87,18 +140,42 @@ public class GeminiService {
 
         request.put("contents", contents);
 
-        Map<String, Object> generationConfig = new HashMap<>();
-        generationConfig.put("temperature", 0.7);
-        generationConfig.put("topK", 40);
-        generationConfig.put("topP", 0.95);
-        generationConfig.put("maxOutputTokens", 2048);
-
-        request.put("generationConfig", generationConfig);
+        request.put("generationConfig", geminiConfig.getGenerationConfig());
 
         return request;
     }
 
-    private String extractTextFromResponse(String responseBody) {
+    String readStream(InputStream body, Consumer<String> onChunk) throws IOException {
+        StringBuilder text = new StringBuilder();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            // Each event is one "data: {GenerateContentResponse}" line; blank lines separate events
+            if (!line.startsWith("data:")) {
+                continue;
+            }
+            String chunk = extractChunkText(line.substring(5).trim());
+            if (!chunk.isEmpty()) {
+                text.append(chunk);
+                onChunk.accept(chunk);
+            }
+        }
+        return text.length() > 0 ? text.toString() : NO_RESPONSE_MESSAGE;
+    }
+
+    private String extractChunkText(String json) throws IOException {
+        JsonNode parts = objectMapper.readTree(json)
+                .path("candidates").path(0)
+                .path("content").path("parts");
+
+        StringBuilder text = new StringBuilder();
+        for (JsonNode part : parts) {
+            text.append(part.path("text").asText(""));
+        }
+        return text.toString();
+    }
+
+    String extractTextFromResponse(String responseBody) {
         try {
             JsonNode root = objectMapper.readTree(responseBody);
             JsonNode candidates = root.path("candidates");
@@ -113,11 +190,11 @@ public class GeminiService {
                 }
             }
 
-            return "No response generated";
+            return NO_RESPONSE_MESSAGE;
 
         } catch (Exception e) {
             log.error("Failed to parse Gemini response", e);
-            return "Error parsing AI response";
+            return PARSE_ERROR_MESSAGE;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.finance.aiexpense.service;
+
+import com.finance.aiexpense.config.AIExecutorConfig;
+import com.finance.aiexpense.dto.InsightDTO;
+import com.finance.aiexpense.entity.User;
+import com.finance.aiexpense.entity.UserInsight;
+import com.finance.aiexpense.repository.UserInsightRepository;
+import com.finance.aiexpense.repository.UserRepository;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Precomputes each user's insight text off the request path.
+ * <p>
+ * Transaction writes mark the user dirty; every {@code refresh-interval} ms up to {@code max-per-run}
+ * dirty users are handed to the insight worker pool, which regenerates and stores their insight.
+ * Runs are skipped while the geminiAI circuit breaker is open so a Gemini outage doesn't burn the
+ * pool, and a refresh that still gets a canned answer back (failed call, breaker fallback) stores
+ * nothing and leaves the user dirty, so good insights are never overwritten with fallback text.
+ * GET /api/ai/insights only reads the stored row.
+ * <p>
+ * The dirty set is per instance and not persisted; insights older than {@code max-age} are
+ * regenerated on read, which also covers marks lost to a restart.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InsightService {
+
+    static final String PREPARING_MESSAGE =
+            "Your insights are being prepared. Check back in a minute.";
+
+    private final AIService aiService;
+    private final UserRepository userRepository;
+    private final UserInsightRepository userInsightRepository;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    @Qualifier(AIExecutorConfig.INSIGHT_EXECUTOR)
+    private final Executor insightExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.insights.max-per-run:20}")
+    private int maxPerRun = 20;
+
+    @Value("${app.insights.max-age:24h}")
+    private Duration maxAge = Duration.ofHours(24);
+
+    private final Set<Long> dirtyUsers = ConcurrentHashMap.newKeySet();
+
+    private Counter refreshed;
+    private Counter failed;
+
+    @PostConstruct
+    public void init() {
+        refreshed = refreshCounter("success");
+        failed = refreshCounter("failure");
+        Gauge.builder("ai.insights.dirty", dirtyUsers, Set::size)
+                .description("Users waiting for their insight to be regenerated")
+                .register(meterRegistry);
+    }
+
+    public InsightDTO getInsights(User user) {
+        Optional<UserInsight> stored = userInsightRepository.findById(user.getId());
+        if (stored.isEmpty()) {
+            dirtyUsers.add(user.getId());
+            return InsightDTO.builder()
+                    .insights(PREPARING_MESSAGE)
+                    .refreshing(true)
+                    .build();
+        }
+
+        UserInsight insight = stored.get();
+        if (insight.getGeneratedAt().isBefore(LocalDateTime.now().minus(maxAge))) {
+            dirtyUsers.add(user.getId());
+        }
+        return InsightDTO.builder()
+                .insights(insight.getContent())
+                .generatedAt(insight.getGeneratedAt())
+                .refreshing(dirtyUsers.contains(user.getId()))
+                .build();
+    }
+
+    /**
+     * Queues the user's insight for regeneration. Inside a transaction the mark is added after
+     * commit, so the worker never reads the rollup before the write that triggered it.
+     */
+    public void markDirty(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirtyUsers.add(userId);
+                }
+            });
+        } else {
+            dirtyUsers.add(userId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.insights.refresh-interval:30000}")
+    public void processDirtyUsers() {
+        if (dirtyUsers.isEmpty()) {
+            return;
+        }
+        CircuitBreaker.State state = circuitBreakerRegistry.circuitBreaker("geminiAI").getState();
+        if (state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN) {
+            log.debug("Gemini circuit open, deferring {} insight refreshes", dirtyUsers.size());
+            return;
+        }
+
+        int submitted = 0;
+        Iterator<Long> iterator = dirtyUsers.iterator();
+        while (iterator.hasNext() && submitted < maxPerRun) {
+            Long userId = iterator.next();
+            iterator.remove();
+            try {
+                insightExecutor.execute(() -> refresh(userId));
+                submitted++;
+            } catch (RejectedExecutionException e) {
+                // Pool is busy with the previous run; pick the rest up next time
+                dirtyUsers.add(userId);
+                break;
+            }
+        }
+        log.debug("Submitted {} insight refreshes, {} still dirty", submitted, dirtyUsers.size());
+    }
+
+    void refresh(Long userId) {
+        try {
+            Optional<User> user = userRepository.findById(userId);
+            if (user.isEmpty()) {
+                return;
+            }
+            String content = aiService.generateModelInsights(user.get()).join();
+            if (!GeminiService.isGeneratedResponse(content)) {
+                // Circuit-breaker fallback or an empty answer: keep the stored insight
+                retryLater(userId, content);
+                return;
+            }
+            userInsightRepository.save(new UserInsight(userId, content, LocalDateTime.now()));
+            refreshed.increment();
+        } catch (RuntimeException e) {
+            retryLater(userId, e.getMessage());
+        }
+    }
+
+    private void retryLater(Long userId, String reason) {
+        log.warn("Insight refresh failed for user {}, will retry: {}", userId, reason);
+        dirtyUsers.add(userId);
+        failed.increment();
+    }
+
+    boolean isDirty(Long userId) {
+        return dirtyUsers.contains(userId);
+    }
+
+    private Counter refreshCounter(String result) {
+        return Counter.builder("ai.insights.refreshed")
+                .description("Background insight regenerations")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,155 @@
+package com.finance.aiexpense.service;
+
+import com.finance.aiexpense.dto.PaymentRequest;
+import com.finance.aiexpense.dto.PaymentResponse;
+import com.finance.aiexpense.entity.User;
+import com.finance.aiexpense.exception.BadRequestException;
+import com.finance.aiexpense.exception.ResourceConflictException;
+import com.finance.aiexpense.repository.IdempotencyKeyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Idempotency-Key handling for POST /api/payments/create-order.
+ * <p>
+ * Lookups go through three layers: a Caffeine cache of completed responses, an in-flight map that
+ * makes duplicates arriving at this instance wait for the first request instead of taking a DB
+ * connection, and the {@code idempotency_keys} unique index that {@link PaymentService} claims in
+ * the order's own transaction, which covers other instances and restarts. A key reused with a
+ * different request is rejected with 409.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentIdempotencyService {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final PaymentService paymentService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.payments.idempotency.retention:24h}")
+    private Duration retention = Duration.ofHours(24);
+
+    @Value("${app.payments.idempotency.cache-size:10000}")
+    private long cacheSize = 10_000;
+
+    private Cache<String, StoredResponse> completed;
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private Counter created;
+    private Counter replayed;
+    private Counter coalesced;
+
+    @PostConstruct
+    public void init() {
+        completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(retention)
+                .build();
+        created = requestCounter("created");
+        replayed = requestCounter("replayed");
+        coalesced = requestCounter("coalesced");
+    }
+
+    public PaymentResponse createPaymentOrder(PaymentRequest request, User user, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return paymentService.createPaymentOrder(request, user);
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String fingerprint = fingerprint(request);
+        String cacheKey = user.getId() + ":" + idempotencyKey;
+
+        StoredResponse stored = completed.getIfPresent(cacheKey);
+        if (stored != null) {
+            replayed.increment();
+            return stored.replay(fingerprint);
+        }
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> leader = inFlight.putIfAbsent(cacheKey, mine);
+        if (leader != null) {
+            coalesced.increment();
+            try {
+                return leader.join().replay(fingerprint);
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            PaymentResponse response = paymentService.createPaymentOrder(request, user, idempotencyKey, fingerprint);
+            StoredResponse result = new StoredResponse(fingerprint, response);
+            completed.put(cacheKey, result);
+            mine.complete(result);
+            created.increment();
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, mine);
+        }
+    }
+
+    @Scheduled(cron = "${app.payments.idempotency.purge-cron:0 15 4 * * *}")
+    public void purgeExpired() {
+        int deleted = idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        log.info("Purged {} expired idempotency keys", deleted);
+    }
+
+    // Fields that define the order; a retry must repeat them exactly
+    static String fingerprint(PaymentRequest request) {
+        String canonical = String.join("|",
+                String.valueOf(request.getAmount()),
+                String.valueOf(request.getPaymentMethod()),
+                String.valueOf(request.getSubscriptionTier()),
+                String.valueOf(request.getDurationMonths()),
+                String.valueOf(request.getGateway()));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private Counter requestCounter(String result) {
+        return Counter.builder("payments.idempotency.requests")
+                .description("Keyed payment order requests by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record StoredResponse(String fingerprint, PaymentResponse response) {
+
+        PaymentResponse replay(String requestFingerprint) {
+            if (!fingerprint.equals(requestFingerprint)) {
+                throw new ResourceConflictException("Idempotency-Key was already used for a different payment request");
+            }
+            return response;
+        }
+    }
+}
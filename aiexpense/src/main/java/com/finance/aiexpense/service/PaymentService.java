@@ -1,15 +1,20 @@
 package com.finance.aiexpense.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.finance.aiexpense.dto.PaymentRequest;
 import com.finance.aiexpense.dto.PaymentResponse;
 import com.finance.aiexpense.dto.SubscriptionPlanDTO;
+import com.finance.aiexpense.entity.IdempotencyKey;
 import com.finance.aiexpense.entity.Payment;
 import com.finance.aiexpense.entity.User;
 import com.finance.aiexpense.enums.PaymentMethod;
 import com.finance.aiexpense.enums.PaymentStatus;
 import com.finance.aiexpense.enums.SubscriptionTier;
+import com.finance.aiexpense.exception.ResourceConflictException;
 import com.finance.aiexpense.payment.factory.PaymentStrategyFactory;
 import com.finance.aiexpense.payment.strategy.PaymentStrategy;
+import com.finance.aiexpense.repository.IdempotencyKeyRepository;
 import com.finance.aiexpense.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,6 +32,8 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final PaymentStrategyFactory strategyFactory;
     private final SubscriptionService subscriptionService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
 
     @Transactional
     public PaymentResponse createPaymentOrder(PaymentRequest request, User user) {
@@ -59,6 +66,49 @@ public class PaymentService {
         return response;
     }
 
+    /**
+     * {@link #createPaymentOrder(PaymentRequest, User)} at most once per (user, key). The key is claimed
+     * in this transaction, so a concurrent duplicate on any instance waits on the claim and then
+     * replays the stored response; if this order fails, the claim rolls back with it and a retry
+     * may create the order.
+     */
+    @Transactional
+    public PaymentResponse createPaymentOrder(PaymentRequest request, User user,
+                                              String idempotencyKey, String fingerprint) {
+        if (idempotencyKeyRepository.claim(user.getId(), idempotencyKey, fingerprint) == 0) {
+            IdempotencyKey existing = idempotencyKeyRepository
+                    .findByUserIdAndIdempotencyKey(user.getId(), idempotencyKey)
+                    .filter(key -> key.getResponseBody() != null)
+                    .orElseThrow(() -> new ResourceConflictException(
+                            "A request with this Idempotency-Key is still being processed"));
+            if (!existing.getRequestFingerprint().equals(fingerprint)) {
+                throw new ResourceConflictException("Idempotency-Key was already used for a different payment request");
+            }
+            log.info("Replaying payment order for user {} and key {}", user.getEmail(), idempotencyKey);
+            return readResponse(existing.getResponseBody());
+        }
+
+        PaymentResponse response = createPaymentOrder(request, user);
+        idempotencyKeyRepository.storeResponse(user.getId(), idempotencyKey, writeResponse(response));
+        return response;
+    }
+
+    private String writeResponse(PaymentResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not store payment response", e);
+        }
+    }
+
+    private PaymentResponse readResponse(String body) {
+        try {
+            return objectMapper.readValue(body, PaymentResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored payment response", e);
+        }
+    }
+
     @Transactional
     public PaymentResponse verifyAndCompletePayment(
             String orderId, String paymentId, String signature, User user) {
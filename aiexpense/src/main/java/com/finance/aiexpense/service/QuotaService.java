@@ -0,0 +1,127 @@
+package com.finance.aiexpense.service;
+
+import com.finance.aiexpense.entity.LimitType;
+import com.finance.aiexpense.entity.User;
+import com.finance.aiexpense.enums.QuotaWindow;
+import com.finance.aiexpense.enums.SubscriptionTier;
+import com.finance.aiexpense.exception.RateLimitExceededException;
+import com.finance.aiexpense.repository.QuotaCounterRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Enforces the per-tier quotas declared on {@link SubscriptionTier} with running counters in
+ * {@code quota_counters}, one row per (user, limit type, window).
+ * <p>
+ * A check is a single conditional UPDATE per metered window, so the write path never counts
+ * source rows. A counter that doesn't exist yet is seeded from the real count the first time it is
+ * needed, and a nightly job corrects any drift and drops counters for finished windows.
+ * <p>
+ * Call inside the transaction that performs the write: if any window is over its limit the
+ * exception rolls back the increments already made together with the write itself.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QuotaService {
+
+    private final QuotaCounterRepository quotaCounterRepository;
+
+    @Transactional
+    public void consume(User user, LimitType limitType, int amount) {
+        if (amount <= 0) {
+            return;
+        }
+        SubscriptionTier tier = user.getSubscriptionTier();
+        LocalDate today = LocalDate.now();
+
+        for (QuotaWindow window : QuotaWindow.values()) {
+            int limit = tier.getQuotaLimit(limitType, window);
+            if (limit == SubscriptionTier.UNLIMITED) {
+                continue;
+            }
+            LocalDate periodStart = window.start(today);
+            if (tryConsume(user.getId(), limitType, window, periodStart, amount, limit)) {
+                continue;
+            }
+            // The counter may be missing; seed it and retry even when a concurrent request seeded it first
+            seed(user.getId(), limitType, window, today);
+            if (tryConsume(user.getId(), limitType, window, periodStart, amount, limit)) {
+                continue;
+            }
+
+            long used = quotaCounterRepository
+                    .findUsed(user.getId(), limitType.name(), window.name(), periodStart)
+                    .orElse(0L);
+            log.warn("{} {} quota exceeded for user: {} ({}), {}/{} used, {} requested",
+                    window.getLabel(), limitType, user.getEmail(), tier, used, limit, amount);
+            throw new RateLimitExceededException(String.format(
+                    "%s %s limit reached. You have used %d/%d.%s",
+                    window.getLabel(), describe(limitType), used, limit,
+                    upgradeHint(tier, limitType, window, limit)));
+        }
+    }
+
+    /** Gives back quota for rows that were removed; {@code occurredOn} picks the window they were counted in. */
+    @Transactional
+    public void release(User user, LimitType limitType, int amount, LocalDate occurredOn) {
+        if (amount <= 0) {
+            return;
+        }
+        for (QuotaWindow window : QuotaWindow.values()) {
+            quotaCounterRepository.release(user.getId(), limitType.name(), window.name(),
+                    window.start(occurredOn), amount);
+        }
+    }
+
+    @Scheduled(cron = "${app.quota.reconcile-cron:0 45 3 * * *}")
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        int corrected = quotaCounterRepository.reconcileTransactionCounters(today);
+        int expired = quotaCounterRepository.deleteExpired(today);
+        if (corrected > 0) {
+            log.warn("Quota reconciliation corrected {} drifted transaction counters", corrected);
+        }
+        log.info("Quota reconciliation done: {} corrected, {} expired counters removed", corrected, expired);
+    }
+
+    private boolean tryConsume(Long userId, LimitType limitType, QuotaWindow window,
+                               LocalDate periodStart, int amount, int limit) {
+        return quotaCounterRepository.tryConsume(
+                userId, limitType.name(), window.name(), periodStart, amount, limit) > 0;
+    }
+
+    private void seed(Long userId, LimitType limitType, QuotaWindow window, LocalDate today) {
+        if (limitType == LimitType.TRANSACTION) {
+            quotaCounterRepository.seedTransactionCounter(
+                    userId, window.name(), window.start(today), window.end(today));
+            return;
+        }
+        quotaCounterRepository.seedEmptyCounter(
+                userId, limitType.name(), window.name(), window.start(today), window.end(today));
+    }
+
+    // Points at the next tier that actually raises this limit, or nothing when none does
+    private String upgradeHint(SubscriptionTier tier, LimitType limitType, QuotaWindow window, int limit) {
+        SubscriptionTier[] tiers = SubscriptionTier.values();
+        for (int i = tier.ordinal() + 1; i < tiers.length; i++) {
+            int higher = tiers[i].getQuotaLimit(limitType, window);
+            if (higher == SubscriptionTier.UNLIMITED || higher > limit) {
+                String name = tiers[i].name();
+                return " Upgrade to " + name.charAt(0) + name.substring(1).toLowerCase(Locale.ROOT)
+                        + " for a higher limit!";
+            }
+        }
+        return "";
+    }
+
+    private String describe(LimitType limitType) {
+        return limitType == LimitType.AI_CHAT ? "AI chat" : limitType.name().toLowerCase(Locale.ROOT);
+    }
+}
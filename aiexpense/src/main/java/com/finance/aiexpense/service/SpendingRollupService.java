@@ -0,0 +1,117 @@
+package com.finance.aiexpense.service;
+
+import com.finance.aiexpense.dto.CategorySpendingDTO;
+import com.finance.aiexpense.dto.TransactionRequest;
+import com.finance.aiexpense.entity.User;
+import com.finance.aiexpense.repository.MonthlyCategoryTotalRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains user_monthly_category_totals: one row per (user, month, category) holding the
+ * spend and transaction count. Writes apply deltas; the repair job recomputes from scratch.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SpendingRollupService {
+
+    public static final String UNCATEGORIZED = "Others";
+
+    // pg_advisory_xact_lock key shared by rebuildAll and initializeIfEmpty on every replica
+    static final long REBUILD_LOCK_KEY = 0x5350454e44524f4cL;
+
+    private final MonthlyCategoryTotalRepository rollupRepository;
+
+    public void recordAdded(Long userId, LocalDate date, String category, double amount) {
+        rollupRepository.applyDelta(userId, monthStart(date), normalize(category), amount, 1);
+    }
+
+    public void recordRemoved(Long userId, LocalDate date, String category, double amount) {
+        LocalDate month = monthStart(date);
+        String normalized = normalize(category);
+        rollupRepository.applyDelta(userId, month, normalized, -amount, -1);
+        rollupRepository.deleteIfEmpty(userId, month, normalized);
+    }
+
+    public void recordCategoryChange(Long userId, LocalDate date, double amount,
+                                     String oldCategory, String newCategory) {
+        if (normalize(oldCategory).equals(normalize(newCategory))) {
+            return;
+        }
+        recordRemoved(userId, date, oldCategory, amount);
+        recordAdded(userId, date, newCategory, amount);
+    }
+
+    // Bulk path: one upsert per (month, category) group instead of one per row
+    public void recordAddedBatch(Long userId, List<TransactionRequest> rows) {
+        Map<LocalDate, Map<String, double[]>> groups = new HashMap<>();
+        for (TransactionRequest row : rows) {
+            double[] totals = groups
+                    .computeIfAbsent(monthStart(row.getDate()), m -> new HashMap<>())
+                    .computeIfAbsent(normalize(row.getCategory()), c -> new double[2]);
+            totals[0] += row.getAmount();
+            totals[1]++;
+        }
+
+        groups.forEach((month, categories) -> categories.forEach((category, totals) ->
+                rollupRepository.applyDelta(userId, month, category, totals[0], (long) totals[1])));
+    }
+
+    public List<CategorySpendingDTO> getCategoryTotalsSince(User user, YearMonth fromMonth) {
+        return rollupRepository.sumByCategorySince(user.getId(), fromMonth.atDay(1));
+    }
+
+    @Cacheable(value = "userStats", key = "#user.id", sync = true)
+    public List<CategorySpendingDTO> getAllTimeCategoryTotals(User user) {
+        return rollupRepository.sumByCategory(user.getId());
+    }
+
+    @Transactional
+    public void rebuild(Long userId) {
+        rollupRepository.deleteByUserId(userId);
+        int rows = rollupRepository.rebuildForUser(userId);
+        log.info("Rebuilt spending rollup for user {} ({} rows)", userId, rows);
+    }
+
+    // Repair job: corrects any drift from floating-point deltas or out-of-band writes
+    @Scheduled(cron = "${app.rollup.repair-cron:0 30 3 * * *}")
+    @Transactional
+    public void rebuildAll() {
+        rollupRepository.lockForRebuild(REBUILD_LOCK_KEY);
+        rollupRepository.deleteAllRows();
+        int rows = rollupRepository.rebuildAllRows();
+        log.info("Rebuilt spending rollup for all users ({} rows)", rows);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initializeIfEmpty() {
+        // Replicas starting together wait here, and all but the first then see a filled table
+        rollupRepository.lockForRebuild(REBUILD_LOCK_KEY);
+        if (rollupRepository.count() == 0) {
+            rollupRepository.rebuildAllRows();
+            log.info("Initialized empty spending rollup from transactions");
+        }
+    }
+
+    private LocalDate monthStart(LocalDate date) {
+        return date.withDayOfMonth(1);
+    }
+
+    private String normalize(String category) {
+        return category != null ? category : UNCATEGORIZED;
+    }
+}
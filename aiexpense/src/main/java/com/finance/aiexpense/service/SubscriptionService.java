@@ -16,6 +16,7 @@ import java.time.LocalDateTime;
 public class SubscriptionService {
 
     private final UserRepository userRepository;
+    private final UserService userService;
 
     @Transactional
     public void upgradeSubscription(User user, SubscriptionTier tier, Integer durationMonths) {
@@ -24,6 +25,7 @@ public class SubscriptionService {
         user.setSubscriptionEndDate(LocalDateTime.now().plusMonths(durationMonths));
 
         userRepository.save(user);
+        userService.evictPrincipal(user.getEmail());
 
         log.info("User {} upgraded to {} for {} months",
                 user.getEmail(), tier, durationMonths);
@@ -39,6 +41,7 @@ public class SubscriptionService {
         user.setSubscriptionTier(SubscriptionTier.FREE);
         user.setSubscriptionEndDate(null);
         userRepository.save(user);
+        userService.evictPrincipal(user.getEmail());
 
         log.info("Subscription cancelled for user {}", user.getEmail());
     }
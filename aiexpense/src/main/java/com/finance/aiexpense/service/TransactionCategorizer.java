@@ -0,0 +1,88 @@
+package com.finance.aiexpense.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finance.aiexpense.categorization.CategoryMatcher;
+import com.finance.aiexpense.categorization.CategoryRuleSet;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Keyword-based categorizer used whenever Gemini can't be (circuit open, timeouts, bad JSON).
+ * Rules come from a JSON resource and are compiled into a {@link CategoryMatcher}; pointing
+ * {@code app.categorization.rules-location} at a file lets ops edit rules without a redeploy.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionCategorizer {
+
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.categorization.rules-location:classpath:categorization-rules.json}")
+    private String rulesLocation = "classpath:categorization-rules.json";
+
+    // Swapped atomically on reload; readers never see a half-built automaton
+    private volatile CategoryMatcher matcher;
+    private volatile long loadedLastModified = -1;
+
+    @PostConstruct
+    public void init() {
+        if (!reload()) {
+            throw new IllegalStateException("Could not load category rules from " + rulesLocation);
+        }
+    }
+
+    public String categorize(String description) {
+        return matcher.match(description);
+    }
+
+    @Scheduled(fixedDelayString = "${app.categorization.reload-interval:60000}")
+    public void reloadIfChanged() {
+        Resource resource = resourceLoader.getResource(rulesLocation);
+        try {
+            if (resource.lastModified() != loadedLastModified) {
+                reload();
+            }
+        } catch (IOException e) {
+            log.debug("Cannot stat category rules at {}: {}", rulesLocation, e.getMessage());
+        }
+    }
+
+    /**
+     * Recompiles the rules. A broken rule file is logged and ignored so the
+     * previous matcher keeps serving.
+     */
+    public synchronized boolean reload() {
+        Resource resource = resourceLoader.getResource(rulesLocation);
+        try (InputStream in = resource.getInputStream()) {
+            CategoryRuleSet ruleSet = objectMapper.readValue(in, CategoryRuleSet.class);
+            CategoryMatcher compiled = CategoryMatcher.compile(ruleSet);
+            loadedLastModified = lastModified(resource);
+            matcher = compiled;
+            log.info("Loaded {} category rules ({} keywords, {} states) from {}",
+                    compiled.getRuleCount(), compiled.getKeywordCount(), compiled.getStateCount(), rulesLocation);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Failed to load category rules from {}, keeping previous rules", rulesLocation, e);
+            return false;
+        }
+    }
+
+    private long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.finance.aiexpense.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finance.aiexpense.dto.TransactionDTO;
+import com.finance.aiexpense.entity.User;
+import com.finance.aiexpense.enums.ExportFormat;
+import com.finance.aiexpense.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionExportService {
+
+    private static final String CSV_HEADER = "id,date,description,amount,category,paymentMode";
+
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+
+    // Streams rows from a DB cursor straight to the response; never touches the "transactions" cache
+    @Transactional(readOnly = true)
+    public long export(User user, ExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long rows = 0;
+        // Projected rows are plain DTOs, so nothing accumulates in the persistence context
+        try (Stream<TransactionDTO> stream = transactionRepository.streamDtosByUserId(user.getId())) {
+            Iterator<TransactionDTO> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                TransactionDTO transaction = iterator.next();
+                if (format == ExportFormat.CSV) {
+                    writeCsvRow(writer, transaction);
+                } else {
+                    writeJsonLine(writer, transaction);
+                }
+                rows++;
+            }
+        }
+
+        writer.flush();
+        log.info("Exported {} transactions for user {} as {}", rows, user.getEmail(), format);
+        return rows;
+    }
+
+    private void writeCsvRow(Writer writer, TransactionDTO transaction) throws IOException {
+        writer.write(String.valueOf(transaction.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(transaction.getDate()));
+        writer.write(',');
+        writer.write(escapeCsv(transaction.getDescription()));
+        writer.write(',');
+        writer.write(String.valueOf(transaction.getAmount()));
+        writer.write(',');
+        writer.write(escapeCsv(transaction.getCategory()));
+        writer.write(',');
+        writer.write(escapeCsv(transaction.getPaymentMode()));
+        writer.write('\n');
+    }
+
+    private void writeJsonLine(Writer writer, TransactionDTO transaction) throws IOException {
+        writer.write(objectMapper.writeValueAsString(transaction));
+        writer.write('\n');
+    }
+
+    private String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,259 @@
+package com.finance.aiexpense.service;
+
+import com.finance.aiexpense.dto.TransactionImportResult;
+import com.finance.aiexpense.dto.TransactionRequest;
+import com.finance.aiexpense.entity.LimitType;
+import com.finance.aiexpense.entity.User;
+import com.finance.aiexpense.exception.BadRequestException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 50;
+
+    // Length of the varchar(255) text columns; a longer value would fail the whole JDBC batch
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    // Goes through JDBC directly: IDENTITY ids stop Hibernate from batching entity inserts
+    private static final String INSERT_SQL =
+            "INSERT INTO transactions (user_id, description, amount, date, category, payment_mode, created_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserCacheService userCacheService;
+    private final SpendingRollupService spendingRollupService;
+    private final QuotaService quotaService;
+    private final InsightService insightService;
+
+    @Value("${app.transactions.import.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Transactional
+    public TransactionImportResult importCsv(InputStream inputStream, User user) throws IOException {
+        TransactionImportResult result = TransactionImportResult.builder().build();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+
+        List<String> header = readRecord(reader);
+        if (header == null) {
+            throw new BadRequestException("Import file is empty");
+        }
+        Map<String, Integer> columns = mapColumns(header);
+
+        List<TransactionRequest> chunk = new ArrayList<>(chunkSize);
+        int line = 1;
+        int chunkRows = 0;
+        int chunkSkipped = 0;
+        List<String> record;
+
+        while ((record = readRecord(reader)) != null) {
+            line++;
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+
+            result.setTotalRows(result.getTotalRows() + 1);
+            chunkRows++;
+            try {
+                chunk.add(parseRow(record, columns));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                chunkSkipped++;
+                result.setSkippedRows(result.getSkippedRows() + 1);
+                if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+                    result.getErrors().add("Line " + line + ": " + e.getMessage());
+                }
+            }
+
+            if (chunkRows == chunkSize) {
+                flushChunk(chunk, chunkRows, chunkSkipped, user, result);
+                chunk = new ArrayList<>(chunkSize);
+                chunkRows = 0;
+                chunkSkipped = 0;
+            }
+        }
+
+        if (chunkRows > 0) {
+            flushChunk(chunk, chunkRows, chunkSkipped, user, result);
+        }
+
+        // One targeted eviction for the whole import
+        if (result.getImportedRows() > 0) {
+            userCacheService.evictUser(user.getId(), "import");
+            insightService.markDirty(user.getId());
+        }
+
+        log.info("Imported {}/{} transactions for user {} in {} chunks",
+                result.getImportedRows(), result.getTotalRows(), user.getEmail(), result.getChunks().size());
+        return result;
+    }
+
+    private void flushChunk(List<TransactionRequest> chunk, int rows, int skipped,
+                            User user, TransactionImportResult result) {
+        if (!chunk.isEmpty()) {
+            // Over quota fails the whole import; the transaction rolls back earlier chunks too
+            quotaService.consume(user, LimitType.TRANSACTION, chunk.size());
+            LocalDateTime now = LocalDateTime.now();
+            jdbcTemplate.batchUpdate(INSERT_SQL, chunk, chunk.size(), (ps, row) -> {
+                ps.setLong(1, user.getId());
+                ps.setString(2, row.getDescription());
+                ps.setDouble(3, row.getAmount());
+                ps.setObject(4, row.getDate());
+                ps.setString(5, row.getCategory());
+                ps.setString(6, row.getPaymentMode());
+                ps.setObject(7, now);
+            });
+            spendingRollupService.recordAddedBatch(user.getId(), chunk);
+        }
+
+        result.setImportedRows(result.getImportedRows() + chunk.size());
+        TransactionImportResult.ChunkProgress progress = TransactionImportResult.ChunkProgress.builder()
+                .chunk(result.getChunks().size() + 1)
+                .rows(rows)
+                .imported(chunk.size())
+                .skipped(skipped)
+                .importedSoFar(result.getImportedRows())
+                .build();
+        result.getChunks().add(progress);
+
+        log.info("Import chunk {} for user {}: {} imported, {} skipped ({} total so far)",
+                progress.getChunk(), user.getEmail(), progress.getImported(),
+                progress.getSkipped(), progress.getImportedSoFar());
+    }
+
+    private Map<String, Integer> mapColumns(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", "");
+            columns.put(name, i);
+        }
+        for (String required : List.of("date", "description", "amount")) {
+            if (!columns.containsKey(required)) {
+                throw new BadRequestException("Import file is missing required column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private TransactionRequest parseRow(List<String> record, Map<String, Integer> columns) {
+        String description = column(record, columns, "description");
+        if (description == null) {
+            throw new IllegalArgumentException("Description is required");
+        }
+        checkLength(description, "Description");
+
+        String amountValue = column(record, columns, "amount");
+        if (amountValue == null) {
+            throw new IllegalArgumentException("Amount is required");
+        }
+        double amount;
+        try {
+            amount = Double.parseDouble(amountValue);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount '" + amountValue + "'");
+        }
+        if (!(amount > 0)) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+
+        String dateValue = column(record, columns, "date");
+        if (dateValue == null) {
+            throw new IllegalArgumentException("Date is required");
+        }
+
+        String category = column(record, columns, "category");
+        checkLength(category, "Category");
+        String paymentMode = column(record, columns, "paymentmode");
+        checkLength(paymentMode, "Payment mode");
+
+        TransactionRequest request = new TransactionRequest();
+        request.setDescription(description);
+        request.setAmount(amount);
+        request.setDate(LocalDate.parse(dateValue));
+        request.setCategory(category);
+        request.setPaymentMode(paymentMode);
+        return request;
+    }
+
+    private void checkLength(String value, String label) {
+        if (value != null && value.codePointCount(0, value.length()) > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(label + " is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+    }
+
+    private String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Reads one CSV record, honouring quoted fields that contain commas, quotes or line breaks
+    private List<String> readRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+
+            if (!quoted) {
+                break;
+            }
+            line = reader.readLine();
+            if (line == null) {
+                break;
+            }
+            field.append('\n');
+        }
+
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -1,32 +1,44 @@
 package com.finance.aiexpense.service;
 
 import com.finance.aiexpense.dto.TransactionDTO;
+import com.finance.aiexpense.dto.TransactionPageDTO;
 import com.finance.aiexpense.dto.TransactionRequest;
+import com.finance.aiexpense.entity.LimitType;
 import com.finance.aiexpense.entity.Transaction;
 import com.finance.aiexpense.entity.User;
+import com.finance.aiexpense.exception.BadRequestException;
 import com.finance.aiexpense.exception.ResourceNotFoundException;
 import com.finance.aiexpense.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final TransactionRepository transactionRepository;
-    private final ModelMapper modelMapper;
+    private final UserCacheService userCacheService;
+    private final SpendingRollupService spendingRollupService;
+    private final QuotaService quotaService;
+    private final InsightService insightService;
 
     @Transactional
-    @CacheEvict(value = {"transactions", "userStats", "insights"}, allEntries = true)
     public TransactionDTO addTransaction(TransactionRequest request, User user) {
+        quotaService.consume(user, LimitType.TRANSACTION, 1);
+
         Transaction transaction = Transaction.builder()
                 .user(user)
                 .description(request.getDescription())
@@ -37,36 +49,55 @@ public class TransactionService {
                 .build();
 
         transaction = transactionRepository.save(transaction);
+        spendingRollupService.recordAdded(user.getId(), transaction.getDate(),
+                transaction.getCategory(), transaction.getAmount());
+        userCacheService.evictUser(user.getId(), "add");
+        insightService.markDirty(user.getId());
         return convertToDTO(transaction);
     }
 
     @Cacheable(value = "transactions", key = "#user.id")
     public List<TransactionDTO> getAllTransactions(User user) {
-        return transactionRepository.findByUserOrderByDateDesc(user)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return transactionRepository.findDtosByUserId(user.getId());
+    }
+
+    // ✅ Keyset-paginated listing: (date, id) cursor, constant cost per page
+    public TransactionPageDTO getTransactionPage(User user, String cursor, Integer size) {
+        int pageSize = (size == null || size <= 0) ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        // Fetch one extra row to know whether another page exists
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<TransactionDTO> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = transactionRepository.findDtoPage(user.getId(), limit);
+        } else {
+            TransactionDTO position = decodeCursor(cursor);
+            rows = transactionRepository.findDtoPageAfter(user.getId(), position.getDate(), position.getId(), limit);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<TransactionDTO> page = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+
+        return TransactionPageDTO.builder()
+                .transactions(page)
+                .nextCursor(hasMore ? encodeCursor(page.get(page.size() - 1)) : null)
+                .hasMore(hasMore)
+                .size(pageSize)
+                .build();
     }
 
     // ✅ Get recent N months of transactions
     public List<TransactionDTO> getRecentTransactions(User user, int months) {
         LocalDate fromDate = LocalDate.now().minusMonths(months);
-        return transactionRepository.findByUserAndDateAfterOrderByDateDesc(user, fromDate)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return transactionRepository.findDtosByUserIdAndDateAfter(user.getId(), fromDate);
     }
 
     // ✅ Get transactions in a date range
     public List<TransactionDTO> getTransactionsByDateRange(User user, LocalDate startDate, LocalDate endDate) {
-        return transactionRepository.findByUserAndDateBetweenOrderByDateDesc(user, startDate, endDate)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return transactionRepository.findDtosByUserIdAndDateBetween(user.getId(), startDate, endDate);
     }
 
     @Transactional
-    @CacheEvict(value = {"transactions", "userStats", "insights"}, allEntries = true)
     public void deleteTransaction(Long id, User user) {
         Transaction transaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found"));
@@ -76,11 +107,16 @@ public class TransactionService {
         }
 
         transactionRepository.delete(transaction);
+        quotaService.release(user, LimitType.TRANSACTION, 1,
+                transaction.getCreatedAt() != null ? transaction.getCreatedAt().toLocalDate() : LocalDate.now());
+        spendingRollupService.recordRemoved(user.getId(), transaction.getDate(),
+                transaction.getCategory(), transaction.getAmount());
+        userCacheService.evictUser(user.getId(), "delete");
+        insightService.markDirty(user.getId());
     }
 
     // ✅ Update transaction category
     @Transactional
-    @CacheEvict(value = {"transactions", "userStats", "insights"}, allEntries = true)
     public TransactionDTO updateTransactionCategory(Long id, String category, User user) {
         Transaction transaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found"));
@@ -89,12 +125,43 @@ public class TransactionService {
             throw new RuntimeException("Unauthorized access");
         }
 
+        String previousCategory = transaction.getCategory();
         transaction.setCategory(category);
         transaction = transactionRepository.save(transaction);
+        spendingRollupService.recordCategoryChange(user.getId(), transaction.getDate(),
+                transaction.getAmount(), previousCategory, category);
+        userCacheService.evictUser(user.getId(), "update");
+        insightService.markDirty(user.getId());
         return convertToDTO(transaction);
     }
 
+    private String encodeCursor(TransactionDTO last) {
+        String raw = last.getDate() + ":" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private TransactionDTO decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(':');
+            return TransactionDTO.builder()
+                    .date(LocalDate.parse(raw.substring(0, separator)))
+                    .id(Long.parseLong(raw.substring(separator + 1)))
+                    .build();
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid pagination cursor");
+        }
+    }
+
+    // Write path only; reads are projected straight into TransactionDTO by the repository
     private TransactionDTO convertToDTO(Transaction transaction) {
-        return modelMapper.map(transaction, TransactionDTO.class);
+        return new TransactionDTO(
+                transaction.getId(),
+                transaction.getDescription(),
+                transaction.getAmount(),
+                transaction.getDate(),
+                transaction.getCategory(),
+                transaction.getPaymentMode());
     }
 }
@@ -0,0 +1,59 @@
+package com.finance.aiexpense.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserCacheService {
+
+    // Caches whose entries are keyed by user id
+    public static final List<String> USER_SCOPED_CACHES = List.of("transactions", "userStats");
+
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Evicts only this user's entries from the user-scoped caches. Inside a transaction the
+     * eviction runs after commit so a concurrent read cannot re-cache pre-commit data.
+     */
+    public void evictUser(Long userId, String operation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(userId, operation);
+                }
+            });
+        } else {
+            evictNow(userId, operation);
+        }
+    }
+
+    private void evictNow(Long userId, String operation) {
+        int evicted = 0;
+        for (String cacheName : USER_SCOPED_CACHES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null && cache.evictIfPresent(userId)) {
+                evicted++;
+            }
+        }
+
+        DistributionSummary.builder("cache.user.evicted.keys")
+                .description("Cache keys evicted per transaction write")
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .record(evicted);
+        log.debug("Evicted {} cached entries for user {} after {}", evicted, userId, operation);
+    }
+}
@@ -1,21 +1,94 @@
 package com.finance.aiexpense.service;
 
+import com.finance.aiexpense.entity.User;
 import com.finance.aiexpense.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.security.principal-cache.maximum-size:10000}")
+    private long cacheMaximumSize = 10_000;
+
+    // Bounds how long a change made outside this instance (another node, manual SQL) can go unseen
+    @Value("${app.security.principal-cache.ttl:5m}")
+    private Duration cacheTtl = Duration.ofMinutes(5);
+
+    // Users looked up by the JWT filter on every request, keyed by email
+    private Cache<String, User> principals;
+
+    @PostConstruct
+    public void init() {
+        principals = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "principals");
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        User cached = principals.get(username, email -> userRepository.findByEmail(email).orElse(null));
+        if (cached == null) {
+            throw new UsernameNotFoundException("User not found: " + username);
+        }
+        // Callers mutate and save the principal (e.g. subscription upgrades), so each request gets its own copy
+        return copyOf(cached);
+    }
+
+    /**
+     * Drops the cached principal for this email. Inside a transaction the eviction runs after
+     * commit so a concurrent request cannot re-cache the pre-commit row.
+     */
+    public void evictPrincipal(String email) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principals.invalidate(email);
+                }
+            });
+        } else {
+            principals.invalidate(email);
+        }
+        log.debug("Evicted cached principal {}", email);
+    }
+
+    private static User copyOf(User user) {
+        return User.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .password(user.getPassword())
+                .role(user.getRole())
+                .provider(user.getProvider())
+                .providerId(user.getProviderId())
+                .subscriptionTier(user.getSubscriptionTier())
+                .subscriptionStartDate(user.getSubscriptionStartDate())
+                .subscriptionEndDate(user.getSubscriptionEndDate())
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .build();
     }
-}
\ No newline at end of file
+}
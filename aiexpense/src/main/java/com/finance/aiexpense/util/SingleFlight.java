@@ -0,0 +1,67 @@
+package com.finance.aiexpense.util;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent async loads of the same key into one upstream call.
+ * <p>
+ * The first caller for a key (the leader) runs the loader synchronously inside {@link #execute};
+ * callers arriving while it is in flight get the same outcome without invoking their loader.
+ * Semantics:
+ * <ul>
+ *   <li>Every caller receives its own copy of the shared future, so cancelling or timing out one
+ *       caller's copy never affects the others or the upstream call.</li>
+ *   <li>Failures reach every waiter and are not remembered: the key is released as soon as the
+ *       load completes either way, so the next caller retries.</li>
+ *   <li>The shared load is bounded by {@code timeout}; if the upstream never completes, all waiters
+ *       fail with a {@link java.util.concurrent.TimeoutException} and the key is released.</li>
+ * </ul>
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Duration timeout;
+
+    public SingleFlight(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public CompletableFuture<V> execute(K key, Supplier<? extends CompletableFuture<V>> loader) {
+        CompletableFuture<V> promise = new CompletableFuture<>();
+        // Waiters hang off "shared", which completes only after the key has been released,
+        // so anyone woken by the result can immediately start a fresh load
+        AtomicReference<CompletableFuture<V>> self = new AtomicReference<>();
+        CompletableFuture<V> shared = promise.whenComplete((value, error) -> inFlight.remove(key, self.get()));
+        self.set(shared);
+
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            return existing.copy();
+        }
+
+        promise.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        // Loader runs outside any map lock; a synchronous throw counts as a failed load
+        try {
+            loader.get().whenComplete((value, error) -> {
+                if (error != null) {
+                    promise.completeExceptionally(error);
+                } else {
+                    promise.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            promise.completeExceptionally(e);
+        }
+        return shared.copy();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,10 @@
+-- Atomic check-and-increment for one rate-limit window.
+-- KEYS[1] = counter key, ARGV[1] = limit, ARGV[2] = unix time the window ends (local midnight)
+-- Returns {allowed (1/0), used after this call}
+local used = tonumber(redis.call('GET', KEYS[1]) or '0')
+if used >= tonumber(ARGV[1]) then
+    return {0, used}
+end
+used = redis.call('INCR', KEYS[1])
+redis.call('EXPIREAT', KEYS[1], ARGV[2])
+return {1, used}
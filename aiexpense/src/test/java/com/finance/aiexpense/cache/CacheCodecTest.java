@@ -0,0 +1,89 @@
+package com.finance.aiexpense.cache;
+
+import com.finance.aiexpense.dto.CategorySpendingDTO;
+import com.finance.aiexpense.dto.TransactionDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheCodecTest {
+
+    @ParameterizedTest
+    @EnumSource(CacheCodec.class)
+    void serializer_roundTripsTransactionLists(CacheCodec codec) {
+        RedisSerializer<Object> serializer = codec.serializer(1024);
+        List<TransactionDTO> transactions = transactions(200);
+
+        Object decoded = serializer.deserialize(serializer.serialize(transactions));
+
+        assertEquals(transactions, decoded);
+    }
+
+    @ParameterizedTest
+    @EnumSource(CacheCodec.class)
+    void serializer_roundTripsSmallValuesUncompressed(CacheCodec codec) {
+        RedisSerializer<Object> serializer = codec.serializer(1024);
+        List<CategorySpendingDTO> totals = new ArrayList<>(List.of(new CategorySpendingDTO("Food", 1250.5, 3L)));
+
+        byte[] bytes = serializer.serialize(totals);
+
+        assertEquals(CompressingRedisSerializer.PLAIN, bytes[0]);
+        assertEquals(totals, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void serializer_compressesOnlyAboveThreshold() {
+        List<TransactionDTO> transactions = transactions(200);
+
+        byte[] plain = CacheCodec.SMILE.serializer(-1).serialize(transactions);
+        byte[] compressed = CacheCodec.SMILE.serializer(1024).serialize(transactions);
+
+        assertEquals(CompressingRedisSerializer.PLAIN, plain[0]);
+        assertEquals(CompressingRedisSerializer.GZIP, compressed[0]);
+        assertTrue(compressed.length < plain.length);
+        // Either form reads back regardless of the reader's threshold
+        assertEquals(transactions, CacheCodec.SMILE.serializer(1024).deserialize(plain));
+        assertEquals(transactions, CacheCodec.SMILE.serializer(-1).deserialize(compressed));
+    }
+
+    @Test
+    void smile_isSmallerThanJson() {
+        List<TransactionDTO> transactions = transactions(200);
+
+        int json = CacheCodec.JSON.serializer(-1).serialize(transactions).length;
+        int smile = CacheCodec.SMILE.serializer(-1).serialize(transactions).length;
+
+        assertTrue(smile < json, "smile=" + smile + " json=" + json);
+    }
+
+    @Test
+    void serializer_rejectsUnknownMarker() {
+        RedisSerializer<Object> serializer = CacheCodec.SMILE.serializer(1024);
+
+        assertThrows(SerializationException.class, () -> serializer.deserialize(new byte[]{9, 1, 2}));
+    }
+
+    private static List<TransactionDTO> transactions(int count) {
+        String[] categories = {"Food", "Travel", "Shopping", "Utilities"};
+        List<TransactionDTO> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transactions.add(TransactionDTO.builder()
+                    .id((long) i + 1)
+                    .description("Swiggy order #" + i)
+                    .amount(100.0 + i)
+                    .date(LocalDate.of(2024, 1, 1).plusDays(i % 365))
+                    .category(categories[i % categories.length])
+                    .paymentMode("UPI")
+                    .build());
+        }
+        return transactions;
+    }
+}
@@ -0,0 +1,152 @@
+package com.finance.aiexpense.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshAheadCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(15);
+
+    private ConcurrentMapCache delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicLong now;
+    private List<Runnable> backgroundTasks;
+
+    @BeforeEach
+    void setUp() {
+        delegate = new ConcurrentMapCache("userStats", false);
+        meterRegistry = new SimpleMeterRegistry();
+        now = new AtomicLong(1_000_000);
+        backgroundTasks = new ArrayList<>();
+    }
+
+    @Test
+    void get_missLoadsOnceAndServesFreshHitsFromCache() {
+        RefreshAheadCache cache = cache(0.5);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", cache.get(1L, () -> "v" + loads.incrementAndGet()));
+        assertEquals("v1", cache.get(1L, () -> "v" + loads.incrementAndGet()));
+        assertEquals("v1", cache.get(1L).get());
+
+        assertEquals(1, loads.get());
+        assertTrue(backgroundTasks.isEmpty());
+    }
+
+    @Test
+    void get_concurrentMissesShareOneLoad() throws Exception {
+        RefreshAheadCache cache = cache(0.5);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            results.add(pool.submit(() -> cache.get(1L, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                release.await();
+                return "stats";
+            })));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                results.add(pool.submit(() -> cache.get(1L, () -> "v" + loads.incrementAndGet())));
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            for (Future<Object> result : results) {
+                assertEquals("stats", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void get_pastTtlServesStaleValueWhileOneRefreshRuns() {
+        RefreshAheadCache cache = cache(0.5);
+        cache.get(1L, () -> "old");
+        now.addAndGet(TTL.toMillis() + 1);
+
+        assertEquals("old", cache.get(1L, () -> "new"));
+        assertEquals("old", cache.get(1L, () -> "new"));
+        assertEquals(1, backgroundTasks.size());
+
+        backgroundTasks.get(0).run();
+
+        assertEquals("new", cache.get(1L, () -> "newer"));
+        assertEquals(1.0, meterRegistry.get("cache.refresh").tag("result", "started").counter().count());
+    }
+
+    @Test
+    void shouldRefresh_earlierForSlowLoadsAndUnluckyDraws() {
+        long freshUntil = now.get() + 60_000;
+
+        // A 1s load with a median draw refreshes well before expiry only when close to it
+        assertFalse(cache(0.5).shouldRefresh(new CacheEntry("v", 1_000, freshUntil)));
+        // A 30s load and a low draw (-ln(0.01) ~ 4.6) pushes the refresh over two minutes early
+        assertTrue(cache(0.01).shouldRefresh(new CacheEntry("v", 30_000, freshUntil)));
+        // Instant loads only refresh at expiry
+        assertFalse(cache(0.01).shouldRefresh(new CacheEntry("v", 0, freshUntil)));
+        now.addAndGet(60_000);
+        assertTrue(cache(0.99).shouldRefresh(new CacheEntry("v", 0, freshUntil)));
+    }
+
+    @Test
+    void evict_dropsTheWriteBackOfAnInFlightRefresh() {
+        RefreshAheadCache cache = cache(0.5);
+        cache.get(1L, () -> "old");
+        now.addAndGet(TTL.toMillis() + 1);
+        cache.get(1L, () -> "pre-write value");
+
+        cache.evictIfPresent(1L);
+        backgroundTasks.get(0).run();
+
+        assertNull(cache.get(1L));
+        assertEquals("post-write value", cache.get(1L, () -> "post-write value"));
+    }
+
+    @Test
+    void get_rejectedRefreshKeepsServingCurrentValue() {
+        RefreshAheadCache cache = new RefreshAheadCache(delegate, TTL, 1.0,
+                task -> { throw new RejectedExecutionException("full"); },
+                meterRegistry, now::get, () -> 0.5);
+        cache.get(1L, () -> "old");
+        now.addAndGet(TTL.toMillis() + 1);
+
+        assertEquals("old", cache.get(1L, () -> "new"));
+        assertEquals(1.0, meterRegistry.get("cache.refresh").tag("result", "rejected").counter().count());
+    }
+
+    @Test
+    void get_failedLoadIsReportedAndNotCached() {
+        RefreshAheadCache cache = cache(0.5);
+
+        assertThrows(Cache.ValueRetrievalException.class,
+                () -> cache.get(1L, () -> { throw new IllegalStateException("db down"); }));
+        assertEquals("ok", cache.get(1L, () -> "ok"));
+    }
+
+    private RefreshAheadCache cache(double draw) {
+        return new RefreshAheadCache(delegate, TTL, 1.0, backgroundTasks::add, meterRegistry, now::get, () -> draw);
+    }
+}
@@ -0,0 +1,222 @@
+package com.finance.aiexpense.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheManagerTest {
+
+    private static final String CHANNEL = "cache-invalidation";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private ConcurrentMapCacheManager remote;
+    private SimpleMeterRegistry meterRegistry;
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCacheManager("transactions", "userStats");
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = new TwoLevelCacheManager(remote, Map.of("transactions", Duration.ofMinutes(5)),
+                Duration.ofMinutes(10), 100, redisTemplate, CHANNEL, meterRegistry);
+    }
+
+    @Test
+    void get_fillsLocalTierFromRemoteAndServesRepeatsLocally() {
+        remote.getCache("transactions").put(1L, "user-1 transactions");
+        Cache cache = cacheManager.getCache("transactions");
+
+        assertEquals("user-1 transactions", cache.get(1L).get());
+        // A change only in Redis is not seen until this replica is told to drop its copy
+        remote.getCache("transactions").put(1L, "changed elsewhere");
+        assertEquals("user-1 transactions", cache.get(1L, String.class));
+        assertNull(cache.get(2L));
+
+        assertEquals(1, count("l1", "hit"));
+        assertEquals(2, count("l1", "miss"));
+        assertEquals(1, count("l2", "hit"));
+        assertEquals(1, count("l2", "miss"));
+    }
+
+    @Test
+    void put_writesBothTiersAndTellsOtherReplicas() {
+        Cache cache = cacheManager.getCache("userStats");
+
+        cache.put(7L, "stats");
+
+        assertEquals("stats", remote.getCache("userStats").get(7L).get());
+        assertEquals("stats", cache.get(7L).get());
+        assertEquals(1, count("userStats", "l1", "hit"));
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), message.capture());
+        assertTrue(message.getValue().endsWith("|E|userStats|7"));
+    }
+
+    @Test
+    void evictIfPresent_reportsWhetherEitherTierHeldTheKey() {
+        Cache cache = cacheManager.getCache("transactions");
+        cache.put(1L, "value");
+
+        assertTrue(cache.evictIfPresent(1L));
+        assertFalse(cache.evictIfPresent(1L));
+        assertNull(remote.getCache("transactions").get(1L));
+    }
+
+    @Test
+    void evictIfPresent_onRedis_reportsWhetherTheKeyWasDeleted() {
+        RedisCache redisCache = mock(RedisCache.class);
+        when(redisCache.getName()).thenReturn("transactions");
+        when(redisCache.getCacheConfiguration())
+                .thenReturn(RedisCacheConfiguration.defaultCacheConfig().prefixCacheNameWith("s:"));
+        when(redisTemplate.delete("s:transactions::1")).thenReturn(true, false);
+        Cache cache = managerOver(redisCache).getCache("transactions");
+
+        assertTrue(cache.evictIfPresent(1L));
+        assertFalse(cache.evictIfPresent(1L));
+        verify(redisCache, never()).evictIfPresent(any());
+    }
+
+    @Test
+    void onMessage_fromAnotherReplica_dropsLocalEntry() {
+        remote.getCache("transactions").put(1L, "old");
+        Cache cache = cacheManager.getCache("transactions");
+        cache.get(1L);
+        remote.getCache("transactions").put(1L, "new");
+
+        cacheManager.onMessage(message("other-instance|E|transactions|1"), null);
+
+        assertEquals("new", cache.get(1L).get());
+    }
+
+    @Test
+    void onMessage_clearFromAnotherReplica_dropsAllLocalEntries() {
+        remote.getCache("userStats").put(1L, "a");
+        remote.getCache("userStats").put(2L, "b");
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache("userStats");
+        cache.get(1L);
+        cache.get(2L);
+
+        cacheManager.onMessage(message("other-instance|C|userStats"), null);
+
+        assertEquals(0, cache.localSize());
+    }
+
+    @Test
+    void get_evictedBetweenRemoteReadAndLocalFill_doesNotKeepStaleValue() {
+        AtomicReference<Runnable> afterRemoteRead = new AtomicReference<>(() -> {});
+        ConcurrentMapCache racyRemote = racyRemote(afterRemoteRead);
+        racyRemote.put(1L, "old");
+        TwoLevelCacheManager racyManager = managerOver(racyRemote);
+        Cache cache = racyManager.getCache("transactions");
+        afterRemoteRead.set(() -> cache.evictIfPresent(1L));
+
+        assertEquals("old", cache.get(1L).get());
+
+        racyRemote.put(1L, "new");
+        assertEquals("new", cache.get(1L).get());
+    }
+
+    @Test
+    void get_invalidatedByAnotherReplicaDuringRemoteRead_doesNotKeepStaleValue() {
+        AtomicReference<Runnable> afterRemoteRead = new AtomicReference<>(() -> {});
+        ConcurrentMapCache racyRemote = racyRemote(afterRemoteRead);
+        racyRemote.put(1L, "old");
+        TwoLevelCacheManager racyManager = managerOver(racyRemote);
+        Cache cache = racyManager.getCache("transactions");
+        afterRemoteRead.set(() -> {
+            racyRemote.put(1L, "new");
+            racyManager.onMessage(message("other-instance|E|transactions|1"), null);
+        });
+
+        assertEquals("old", cache.get(1L).get());
+        assertEquals("new", cache.get(1L).get());
+    }
+
+    @Test
+    void onMessage_ignoresOwnMessages() {
+        Cache cache = cacheManager.getCache("transactions");
+        cache.put(1L, "mine");
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), published.capture());
+        remote.getCache("transactions").put(1L, "changed elsewhere");
+
+        cacheManager.onMessage(message(published.getValue()), null);
+
+        assertEquals("mine", cache.get(1L).get());
+    }
+
+    @Test
+    void put_publishFailureDoesNotFailTheWrite() {
+        when(redisTemplate.convertAndSend(eq(CHANNEL), anyString()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        Cache cache = cacheManager.getCache("transactions");
+
+        assertDoesNotThrow(() -> cache.put(1L, "value"));
+        assertEquals("value", remote.getCache("transactions").get(1L).get());
+    }
+
+    // Runs the hook once, after the L2 read and before TwoLevelCache fills L1
+    private static ConcurrentMapCache racyRemote(AtomicReference<Runnable> afterRemoteRead) {
+        return new ConcurrentMapCache("transactions") {
+            @Override
+            public ValueWrapper get(Object key) {
+                ValueWrapper wrapper = super.get(key);
+                afterRemoteRead.getAndSet(() -> {}).run();
+                return wrapper;
+            }
+        };
+    }
+
+    private TwoLevelCacheManager managerOver(Cache remoteCache) {
+        SimpleCacheManager remoteManager = new SimpleCacheManager();
+        remoteManager.setCaches(List.of(remoteCache));
+        remoteManager.afterPropertiesSet();
+        return new TwoLevelCacheManager(remoteManager, Map.of(), Duration.ofMinutes(10), 100,
+                redisTemplate, CHANNEL, meterRegistry);
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long count(String tier, String result) {
+        return count("transactions", tier, result);
+    }
+
+    private long count(String cacheName, String tier, String result) {
+        return meterRegistry.get("cache.tier.gets")
+                .tag("cache", cacheName)
+                .tag("tier", tier)
+                .tag("result", result)
+                .timer()
+                .count();
+    }
+}
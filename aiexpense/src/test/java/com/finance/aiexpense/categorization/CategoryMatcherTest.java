@@ -0,0 +1,96 @@
+package com.finance.aiexpense.categorization;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryMatcherTest {
+
+    private CategoryMatcher matcher;
+
+    @BeforeEach
+    void setUp() {
+        matcher = CategoryMatcher.compile(CategoryRuleSet.builder()
+                .rules(List.of(
+                        CategoryRule.builder().category("Travel").priority(80)
+                                .keywords(List.of("uber", "ola", "train")).build(),
+                        CategoryRule.builder().category("Food").priority(70)
+                                .keywords(List.of("swiggy", "cafe", "food")).build(),
+                        CategoryRule.builder().category("Groceries").priority(50)
+                                .keywords(List.of("bazaar", "dmart")).build(),
+                        CategoryRule.builder().category("Utilities").priority(30)
+                                .keywords(List.of("bill", "électricité")).build()))
+                .build());
+    }
+
+    @Test
+    void match_isCaseInsensitiveSubstringMatch() {
+        assertEquals("Travel", matcher.match("UBER trip to airport"));
+        assertEquals("Food", matcher.match("Swiggy Instamart"));
+        assertEquals("Groceries", matcher.match("Big Bazaar"));
+        assertEquals("Food", matcher.match("seafood platter"));
+    }
+
+    @Test
+    void match_prefersHigherPriorityRegardlessOfPosition() {
+        // Food appears first, Travel outranks it
+        assertEquals("Travel", matcher.match("cafe near the train station"));
+        assertEquals("Food", matcher.match("dmart food court"));
+    }
+
+    @Test
+    void match_followsFailureLinksAcrossOverlappingKeywords() {
+        // "bazaar" prefix is abandoned mid-way, "bill" must still be found
+        assertEquals("Utilities", matcher.match("bazabill"));
+    }
+
+    @Test
+    void match_handlesNonAsciiKeywords() {
+        assertEquals("Utilities", matcher.match("Facture ÉLECTRICITÉ mars"));
+    }
+
+    @Test
+    void match_returnsDefaultWhenNothingMatches() {
+        assertEquals("Others", matcher.match("Transfer to Rahul"));
+        assertEquals("Others", matcher.match(""));
+        assertEquals("Others", matcher.match(null));
+    }
+
+    @Test
+    void compile_equalPrioritiesKeepDeclarationOrder() {
+        CategoryMatcher tied = CategoryMatcher.compile(CategoryRuleSet.builder()
+                .defaultCategory("Misc")
+                .rules(List.of(
+                        CategoryRule.builder().category("Shopping").keywords(List.of("amazon")).build(),
+                        CategoryRule.builder().category("Entertainment").keywords(List.of("prime")).build()))
+                .build());
+
+        assertEquals("Shopping", tied.match("Amazon Prime renewal"));
+        assertEquals("Misc", tied.match("rent"));
+    }
+
+    @Test
+    void compile_rejectsRuleWithoutCategory() {
+        CategoryRuleSet ruleSet = CategoryRuleSet.builder()
+                .rules(List.of(CategoryRule.builder().keywords(List.of("x")).build()))
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> CategoryMatcher.compile(ruleSet));
+    }
+
+    @Test
+    void compile_rejectsRuleWithNullOrEmptyKeywords() {
+        CategoryRuleSet nullKeywords = CategoryRuleSet.builder()
+                .rules(List.of(CategoryRule.builder().category("Food").keywords(null).build()))
+                .build();
+        CategoryRuleSet emptyKeywords = CategoryRuleSet.builder()
+                .rules(List.of(CategoryRule.builder().category("Food").keywords(List.of()).build()))
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> CategoryMatcher.compile(nullKeywords));
+        assertThrows(IllegalArgumentException.class, () -> CategoryMatcher.compile(emptyKeywords));
+    }
+}
@@ -3,7 +3,9 @@ package com.finance.aiexpense.controller;
 import com.finance.aiexpense.dto.*;
 import com.finance.aiexpense.entity.User;
 import com.finance.aiexpense.enums.SubscriptionTier;
+import com.finance.aiexpense.exception.RateLimitExceededException;
 import com.finance.aiexpense.service.AIService;
+import com.finance.aiexpense.service.InsightService;
 import com.finance.aiexpense.service.RateLimiterService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,16 +16,24 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +45,9 @@ public class AIControllerTest {
     @Mock
     private RateLimiterService rateLimiterService;
 
+    @Mock
+    private InsightService insightService;
+
     @InjectMocks
     private AIController aiController;
 
@@ -52,7 +65,8 @@ public class AIControllerTest {
                 .build();
 
         aiAnalysisRequest = new AIAnalysisRequest();
-        aiAnalysisRequest.setTransactions(Collections.singletonList("expense 1"));
+        aiAnalysisRequest.setTransactions(Collections.singletonList(
+                TransactionDTO.builder().description("expense 1").amount(10.0).build()));
 
         aiAnalysisResponse = new AIAnalysisResponse(
                 Collections.singletonList(new CategorizedTransaction("expense 1", "category")), "summary");
@@ -63,9 +77,9 @@ public class AIControllerTest {
 
     @Test
     void analyzeTransactions_success() {
-        when(aiService.analyzeTransactions(any(List.class))).thenReturn(aiAnalysisResponse);
+        when(aiService.analyzeTransactions(any(List.class))).thenReturn(CompletableFuture.completedFuture(aiAnalysisResponse));
 
-        ResponseEntity<ApiResponse<AIAnalysisResponse>> responseEntity = aiController.analyzeTransactions(aiAnalysisRequest);
+        ResponseEntity<ApiResponse<AIAnalysisResponse>> responseEntity = aiController.analyzeTransactions(aiAnalysisRequest).join();
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertNotNull(responseEntity.getBody());
@@ -74,16 +88,20 @@ public class AIControllerTest {
     }
 
     @Test
-    void getInsights_success() {
-        String insights = "Financial insights";
-        when(aiService.generateInsights(any(User.class))).thenReturn(insights);
+    void getInsights_returnsStoredInsightWithoutCallingAI() {
+        InsightDTO insights = InsightDTO.builder()
+                .insights("Financial insights")
+                .generatedAt(LocalDateTime.of(2024, 3, 1, 9, 0))
+                .build();
+        when(insightService.getInsights(mockUser)).thenReturn(insights);
 
-        ResponseEntity<ApiResponse<String>> responseEntity = aiController.getInsights(mockUser);
+        ResponseEntity<ApiResponse<InsightDTO>> responseEntity = aiController.getInsights(mockUser);
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertNotNull(responseEntity.getBody());
-        assertEquals("Insights generated", responseEntity.getBody().getMessage());
+        assertEquals("Insights retrieved", responseEntity.getBody().getMessage());
         assertEquals(insights, responseEntity.getBody().getData());
+        verifyNoInteractions(aiService);
     }
 
     @Test
@@ -91,11 +109,10 @@ public class AIControllerTest {
         String aiResponse = "AI chat response";
         int remainingChats = 5;
 
-        doNothing().when(rateLimiterService).checkAndIncrementAIChatLimit(any(User.class));
-        when(aiService.chatWithAI(anyString(), any(User.class))).thenReturn(aiResponse);
-        when(rateLimiterService.getRemainingAIChats(any(User.class))).thenReturn(remainingChats);
+        when(rateLimiterService.checkAndIncrementAIChatLimit(any(User.class))).thenReturn(remainingChats);
+        when(aiService.chatWithAI(anyString(), any(User.class))).thenReturn(CompletableFuture.completedFuture(aiResponse));
 
-        ResponseEntity<ApiResponse<Map<String, Object>>> responseEntity = aiController.chatWithAI(chatRequest, mockUser);
+        ResponseEntity<ApiResponse<Map<String, Object>>> responseEntity = aiController.chatWithAI(chatRequest, mockUser).join();
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertNotNull(responseEntity.getBody());
@@ -107,6 +124,38 @@ public class AIControllerTest {
         expectedData.put("subscriptionTier", mockUser.getSubscriptionTier().name());
 
         assertEquals(expectedData, responseEntity.getBody().getData());
+        // Remaining count comes back from the check itself
+        verify(rateLimiterService, never()).getRemainingAIChats(any(User.class));
+    }
+
+    @Test
+    void chatWithAI_rateLimited_rejectsBeforeCallingAI() {
+        doThrow(new RateLimitExceededException("Daily AI chat limit reached"))
+                .when(rateLimiterService).checkAndIncrementAIChatLimit(any(User.class));
+
+        assertThrows(RateLimitExceededException.class, () -> aiController.chatWithAI(chatRequest, mockUser));
+        verifyNoInteractions(aiService);
+    }
+
+    @Test
+    void streamChatWithAI_rateLimited_rejectsBeforeOpeningStream() {
+        doThrow(new RateLimitExceededException("Daily AI chat limit reached"))
+                .when(rateLimiterService).checkAndIncrementAIChatLimit(any(User.class));
+
+        assertThrows(RateLimitExceededException.class, () -> aiController.streamChatWithAI(chatRequest, mockUser));
+        verifyNoInteractions(aiService);
+    }
+
+    @Test
+    void streamChatWithAI_countsAgainstLimitOnce() {
+        when(rateLimiterService.checkAndIncrementAIChatLimit(any(User.class))).thenReturn(4);
+        when(aiService.streamChatWithAI(anyString(), any(User.class), any()))
+                .thenReturn(CompletableFuture.completedFuture("AI chat response"));
+
+        assertNotNull(aiController.streamChatWithAI(chatRequest, mockUser));
+
+        verify(rateLimiterService, times(1)).checkAndIncrementAIChatLimit(mockUser);
+        verify(aiService).streamChatWithAI(eq("Hello AI"), eq(mockUser), any());
     }
 
     @Test
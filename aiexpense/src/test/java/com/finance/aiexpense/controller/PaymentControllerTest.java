@@ -6,6 +6,7 @@ import com.finance.aiexpense.entity.User;
 import com.finance.aiexpense.enums.PaymentMethod;
 import com.finance.aiexpense.enums.PaymentStatus;
 import com.finance.aiexpense.enums.SubscriptionTier;
+import com.finance.aiexpense.service.PaymentIdempotencyService;
 import com.finance.aiexpense.service.PaymentService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,6 +26,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +35,9 @@ public class PaymentControllerTest {
     @Mock
     private PaymentService paymentService;
 
+    @Mock
+    private PaymentIdempotencyService paymentIdempotencyService;
+
     @InjectMocks
     private PaymentController paymentController;
 
@@ -98,9 +103,9 @@ public class PaymentControllerTest {
 
     @Test
     void createPaymentOrder_success() {
-        when(paymentService.createPaymentOrder(any(PaymentRequest.class), any(User.class))).thenReturn(paymentResponseSuccess);
+        when(paymentIdempotencyService.createPaymentOrder(any(PaymentRequest.class), any(User.class), eq("key-1"))).thenReturn(paymentResponseSuccess);
 
-        ResponseEntity<ApiResponse<PaymentResponse>> responseEntity = paymentController.createPaymentOrder(paymentRequest, mockUser);
+        ResponseEntity<ApiResponse<PaymentResponse>> responseEntity = paymentController.createPaymentOrder(paymentRequest, "key-1", mockUser);
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertNotNull(responseEntity.getBody());
@@ -110,9 +115,9 @@ public class PaymentControllerTest {
 
     @Test
     void createPaymentOrder_failure() {
-        when(paymentService.createPaymentOrder(any(PaymentRequest.class), any(User.class))).thenReturn(paymentResponseFailure);
+        when(paymentIdempotencyService.createPaymentOrder(any(PaymentRequest.class), any(User.class), eq("key-1"))).thenReturn(paymentResponseFailure);
 
-        ResponseEntity<ApiResponse<PaymentResponse>> responseEntity = paymentController.createPaymentOrder(paymentRequest, mockUser);
+        ResponseEntity<ApiResponse<PaymentResponse>> responseEntity = paymentController.createPaymentOrder(paymentRequest, "key-1", mockUser);
 
         assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
         assertNotNull(responseEntity.getBody());
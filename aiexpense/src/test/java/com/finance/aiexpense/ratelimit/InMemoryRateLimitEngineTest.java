@@ -0,0 +1,176 @@
+package com.finance.aiexpense.ratelimit;
+
+import com.finance.aiexpense.entity.LimitType;
+import com.finance.aiexpense.repository.RateLimitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryRateLimitEngineTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock
+    private RateLimitRepository rateLimitRepository;
+
+    private InMemoryRateLimitEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new InMemoryRateLimitEngine(rateLimitRepository);
+        lenient().when(rateLimitRepository.findRequestCount(anyLong(), any(LimitType.class), any(LocalDate.class)))
+                .thenReturn(Optional.empty());
+    }
+
+    @Test
+    void tryAcquire_allowsUpToLimitThenDenies() {
+        assertEquals(1, engine.tryAcquire(1L, LimitType.AI_CHAT, TODAY, 2).getRemaining());
+        RateLimitDecision second = engine.tryAcquire(1L, LimitType.AI_CHAT, TODAY, 2);
+        RateLimitDecision third = engine.tryAcquire(1L, LimitType.AI_CHAT, TODAY, 2);
+
+        assertTrue(second.isAllowed());
+        assertEquals(0, second.getRemaining());
+        assertFalse(third.isAllowed());
+        assertEquals(2, third.getUsed());
+        assertEquals(2, engine.getUsed(1L, LimitType.AI_CHAT, TODAY));
+    }
+
+    @Test
+    void tryAcquire_seedsFromPersistedCountOnce() {
+        when(rateLimitRepository.findRequestCount(7L, LimitType.AI_CHAT, TODAY)).thenReturn(Optional.of(14));
+
+        assertTrue(engine.tryAcquire(7L, LimitType.AI_CHAT, TODAY, 15).isAllowed());
+        assertFalse(engine.tryAcquire(7L, LimitType.AI_CHAT, TODAY, 15).isAllowed());
+
+        verify(rateLimitRepository, times(1)).findRequestCount(7L, LimitType.AI_CHAT, TODAY);
+    }
+
+    @Test
+    void tryAcquire_keepsUsersAndDaysApart() {
+        engine.tryAcquire(1L, LimitType.AI_CHAT, TODAY, 1);
+
+        assertTrue(engine.tryAcquire(2L, LimitType.AI_CHAT, TODAY, 1).isAllowed());
+        assertTrue(engine.tryAcquire(1L, LimitType.TRANSACTION, TODAY, 1).isAllowed());
+        assertTrue(engine.tryAcquire(1L, LimitType.AI_CHAT, TODAY.plusDays(1), 1).isAllowed());
+        assertFalse(engine.tryAcquire(1L, LimitType.AI_CHAT, TODAY, 1).isAllowed());
+    }
+
+    @Test
+    void tryAcquire_concurrentCallersNeverOverAdmit() throws Exception {
+        int limit = 100;
+        int threads = 32;
+        int attemptsPerThread = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        if (engine.tryAcquire(1L, LimitType.AI_CHAT, TODAY, limit).isAllowed()) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(limit, allowed.get());
+        assertEquals(limit, engine.getUsed(1L, LimitType.AI_CHAT, TODAY));
+    }
+
+    @Test
+    void tryAcquire_concurrentFirstTouchSharesOneCounter() throws Exception {
+        // Every thread races to create the counter; a lost race must not hand out a second allowance
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    if (engine.tryAcquire(3L, LimitType.AI_CHAT, TODAY, 1).isAllowed()) {
+                        allowed.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, allowed.get());
+    }
+
+    @Test
+    void flush_writesOnlyDirtyCounters() {
+        engine.tryAcquire(1L, LimitType.AI_CHAT, TODAY, 5);
+        engine.tryAcquire(1L, LimitType.AI_CHAT, TODAY, 5);
+        engine.getUsed(2L, LimitType.AI_CHAT, TODAY);
+
+        engine.flush();
+        engine.flush();
+
+        verify(rateLimitRepository, times(1))
+                .upsertRequestCount(eq(1L), eq("AI_CHAT"), eq(TODAY), eq(2), any(LocalDateTime.class));
+        verify(rateLimitRepository, never())
+                .upsertRequestCount(eq(2L), anyString(), any(LocalDate.class), anyInt(), any());
+    }
+
+    @Test
+    void flush_retriesAfterFailureAndDropsPastWindows() {
+        LocalDate yesterday = TODAY.minusDays(1);
+        engine.tryAcquire(1L, LimitType.AI_CHAT, yesterday, 5);
+        doThrow(new RuntimeException("db down")).doNothing()
+                .when(rateLimitRepository).upsertRequestCount(anyLong(), anyString(), any(LocalDate.class), anyInt(), any());
+
+        engine.flush();
+        engine.flush();
+        engine.getUsed(1L, LimitType.AI_CHAT, yesterday);
+
+        verify(rateLimitRepository, times(2))
+                .upsertRequestCount(eq(1L), eq("AI_CHAT"), eq(yesterday), eq(1), any(LocalDateTime.class));
+        // Evicted after the successful write, so the next touch reloads it
+        verify(rateLimitRepository, times(2)).findRequestCount(1L, LimitType.AI_CHAT, yesterday);
+    }
+}
@@ -0,0 +1,177 @@
+package com.finance.aiexpense.ratelimit;
+
+import com.finance.aiexpense.entity.LimitType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the Lua script against an embedded Redis server; the tests that need it are skipped when
+ * the platform can't start one.
+ */
+class RedisRateLimitEngineTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Kolkata");
+    private static final LocalDate TODAY = LocalDate.now(ZONE);
+
+    private static RedisServer server;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private final List<LettuceConnectionFactory> extraFactories = new ArrayList<>();
+
+    @BeforeAll
+    static void startRedis() {
+        try {
+            int port = freePort();
+            server = new RedisServer(port);
+            server.start();
+            connectionFactory = connect(port);
+            redisTemplate = new StringRedisTemplate(connectionFactory);
+        } catch (Exception e) {
+            server = null;
+        }
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        extraFactories.forEach(LettuceConnectionFactory::destroy);
+        if (server != null) {
+            redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+        }
+    }
+
+    @Test
+    void tryAcquire_enforcesLimitAndExpiresAtMidnight() {
+        assumeTrue(server != null, "embedded Redis not available");
+        RedisRateLimitEngine engine = new RedisRateLimitEngine(redisTemplate, ZONE, Duration.ofSeconds(5));
+
+        RateLimitDecision first = engine.tryAcquire(1L, LimitType.AI_CHAT, TODAY, 2);
+        RateLimitDecision second = engine.tryAcquire(1L, LimitType.AI_CHAT, TODAY, 2);
+        RateLimitDecision third = engine.tryAcquire(1L, LimitType.AI_CHAT, TODAY, 2);
+
+        assertTrue(first.isAllowed());
+        assertEquals(1, first.getRemaining());
+        assertTrue(second.isAllowed());
+        assertFalse(third.isAllowed());
+        assertEquals(2, third.getUsed());
+        assertEquals(2, engine.getUsed(1L, LimitType.AI_CHAT, TODAY));
+
+        long ttl = redisTemplate.getExpire(RedisRateLimitEngine.key(1L, LimitType.AI_CHAT, TODAY));
+        long untilMidnight = Duration.between(ZonedDateTime.now(ZONE),
+                TODAY.plusDays(1).atStartOfDay(ZONE)).getSeconds();
+        assertTrue(ttl > 0 && ttl <= untilMidnight + 1, "ttl " + ttl + " vs " + untilMidnight);
+    }
+
+    @Test
+    void tryAcquire_concurrentCallersAcrossInstancesNeverOverAdmit() throws Exception {
+        assumeTrue(server != null, "embedded Redis not available");
+        // Two engines stand in for two replicas sharing one Redis
+        RedisRateLimitEngine replicaA = new RedisRateLimitEngine(redisTemplate, ZONE, Duration.ofSeconds(5));
+        RedisRateLimitEngine replicaB = new RedisRateLimitEngine(redisTemplate, ZONE, Duration.ofSeconds(5));
+        int limit = 50;
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < threads; t++) {
+                RedisRateLimitEngine engine = t % 2 == 0 ? replicaA : replicaB;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 20; i++) {
+                        if (engine.tryAcquire(2L, LimitType.AI_CHAT, TODAY, limit).isAllowed()) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(limit, allowed.get());
+        assertEquals(limit, replicaA.getUsed(2L, LimitType.AI_CHAT, TODAY));
+    }
+
+    @Test
+    void tryAcquire_fallsBackToLocalCountersWhenRedisIsDown() throws IOException {
+        // Nothing listens on this port, so every Redis call fails with a connection error
+        LettuceConnectionFactory deadFactory = connect(freePort());
+        extraFactories.add(deadFactory);
+        RedisRateLimitEngine engine = new RedisRateLimitEngine(
+                new StringRedisTemplate(deadFactory), ZONE, Duration.ofMinutes(1));
+
+        assertTrue(engine.tryAcquire(3L, LimitType.AI_CHAT, TODAY, 2).isAllowed());
+        assertTrue(engine.tryAcquire(3L, LimitType.AI_CHAT, TODAY, 2).isAllowed());
+        assertFalse(engine.tryAcquire(3L, LimitType.AI_CHAT, TODAY, 2).isAllowed());
+        assertEquals(2, engine.getUsed(3L, LimitType.AI_CHAT, TODAY));
+    }
+
+    @Test
+    void pruneLocalCounts_dropsPastWindows() throws IOException {
+        LettuceConnectionFactory deadFactory = connect(freePort());
+        extraFactories.add(deadFactory);
+        RedisRateLimitEngine engine = new RedisRateLimitEngine(
+                new StringRedisTemplate(deadFactory), ZONE, Duration.ofMinutes(1));
+        LocalDate yesterday = TODAY.minusDays(1);
+        engine.tryAcquire(4L, LimitType.AI_CHAT, yesterday, 5);
+        engine.tryAcquire(4L, LimitType.AI_CHAT, TODAY, 5);
+
+        engine.pruneLocalCounts();
+
+        assertEquals(0, engine.getUsed(4L, LimitType.AI_CHAT, yesterday));
+        assertEquals(1, engine.getUsed(4L, LimitType.AI_CHAT, TODAY));
+    }
+
+    private static LettuceConnectionFactory connect(int port) {
+        LettuceConnectionFactory factory = new LettuceConnectionFactory("localhost", port);
+        factory.afterPropertiesSet();
+        return factory;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.finance.aiexpense.security;
+
+import com.finance.aiexpense.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    // 256-bit test key, base64 encoded like jwt.secret
+    private static final String SECRET = "ZmluYW5jZS1haWV4cGVuc2UtdGVzdC1zZWNyZXQta2V5LTMyLWJ5dGVzLW9r";
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtService jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtService = newJwtService(86_400_000L);
+        user = User.builder().id(1L).email("test@example.com").build();
+    }
+
+    @Test
+    void generatedToken_isValidForItsUser() {
+        String token = jwtService.generateToken(user);
+
+        assertEquals("test@example.com", jwtService.extractUsername(token));
+        assertTrue(jwtService.isTokenValid(token, user));
+        assertFalse(jwtService.isTokenValid(token, User.builder().email("other@example.com").build()));
+    }
+
+    @Test
+    void extractAllClaims_verifiesOncePerToken() {
+        String token = jwtService.generateToken(user);
+
+        Claims first = jwtService.extractAllClaims(token);
+        Claims second = jwtService.extractAllClaims(token);
+
+        assertSame(first, second);
+        assertEquals(1.0, cacheGets("hit"));
+        assertEquals(1.0, cacheGets("miss"));
+    }
+
+    @Test
+    void tamperedToken_isRejectedAndNotCached() {
+        String token = jwtService.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(SignatureException.class, () -> jwtService.extractAllClaims(tampered));
+        assertThrows(SignatureException.class, () -> jwtService.extractAllClaims(tampered));
+    }
+
+    @Test
+    void expiredToken_isRejected() {
+        JwtService expiringService = newJwtService(-1_000L);
+        String token = expiringService.generateToken(user);
+
+        assertThrows(ExpiredJwtException.class, () -> expiringService.extractAllClaims(token));
+    }
+
+    @Test
+    void tokenFromAnotherKey_isRejected() {
+        JwtService otherService = newJwtService(86_400_000L);
+        ReflectionTestUtils.setField(otherService, "secret",
+                "b3RoZXItc2VydmljZS1zZWNyZXQta2V5LW9mLTMyLWJ5dGVzLW9rISEhISE=");
+        otherService.init();
+
+        String foreign = otherService.generateToken(user);
+
+        assertThrows(SignatureException.class, () -> jwtService.extractAllClaims(foreign));
+    }
+
+    private JwtService newJwtService(long expiration) {
+        JwtService service = new JwtService(meterRegistry);
+        ReflectionTestUtils.setField(service, "secret", SECRET);
+        ReflectionTestUtils.setField(service, "jwtExpiration", expiration);
+        ReflectionTestUtils.setField(service, "refreshExpiration", 604_800_000L);
+        service.init();
+        return service;
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "jwtClaims")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
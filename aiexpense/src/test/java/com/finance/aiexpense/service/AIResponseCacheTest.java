@@ -0,0 +1,156 @@
+package com.finance.aiexpense.service;
+
+import com.finance.aiexpense.config.GeminiConfig;
+import com.finance.aiexpense.enums.AIFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AIResponseCacheTest {
+
+    @Mock
+    private GeminiService geminiService;
+
+    @Mock
+    private GeminiConfig geminiConfig;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AIResponseCache aiResponseCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        aiResponseCache = new AIResponseCache(geminiService, geminiConfig, meterRegistry);
+        aiResponseCache.init();
+        lenient().when(geminiConfig.getModel()).thenReturn("gemini-2.5-flash");
+        lenient().when(geminiConfig.getGenerationConfig()).thenReturn(Map.of("temperature", 0.7));
+    }
+
+    @Test
+    void getOrGenerate_servesRepeatPromptFromCache() {
+        when(geminiService.generateContent("Summarize my spending"))
+                .thenReturn(CompletableFuture.completedFuture("You spent a lot on food."));
+
+        assertEquals("You spent a lot on food.", aiResponseCache.getOrGenerate(AIFeature.CHAT, "Summarize my spending").join());
+        assertEquals("You spent a lot on food.", aiResponseCache.getOrGenerate(AIFeature.INSIGHTS, "  Summarize my spending \r\n").join());
+
+        verify(geminiService, times(1)).generateContent(anyString());
+        assertEquals(1.0, count(AIFeature.CHAT, "miss"));
+        assertEquals(1.0, count(AIFeature.INSIGHTS, "hit"));
+        assertEquals(0.0, count(AIFeature.ANALYZE, "hit"));
+    }
+
+    @Test
+    void getOrGenerate_doesNotCacheFallbacksOrFailures() {
+        when(geminiService.generateContent(anyString()))
+                .thenReturn(CompletableFuture.completedFuture(GeminiService.FALLBACK_MESSAGE))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("timeout")))
+                .thenReturn(CompletableFuture.completedFuture("Real answer"));
+
+        assertEquals(GeminiService.FALLBACK_MESSAGE, aiResponseCache.getOrGenerate(AIFeature.CHAT, "q").join());
+        assertThrows(Exception.class, () -> aiResponseCache.getOrGenerate(AIFeature.CHAT, "q").join());
+        assertEquals("Real answer", aiResponseCache.getOrGenerate(AIFeature.CHAT, "q").join());
+        assertEquals("Real answer", aiResponseCache.getOrGenerate(AIFeature.CHAT, "q").join());
+
+        verify(geminiService, times(3)).generateContent("q");
+        assertEquals(3.0, count(AIFeature.CHAT, "miss"));
+        assertEquals(1.0, count(AIFeature.CHAT, "hit"));
+    }
+
+    @Test
+    void getOrGenerate_coalescesConcurrentIdenticalPrompts() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        when(geminiService.generateContent("Insights for March")).thenReturn(upstream);
+
+        CompletableFuture<String> first = aiResponseCache.getOrGenerate(AIFeature.INSIGHTS, "Insights for March");
+        CompletableFuture<String> second = aiResponseCache.getOrGenerate(AIFeature.INSIGHTS, "Insights for March\n");
+        upstream.complete("Spend less on takeout.");
+
+        assertEquals("Spend less on takeout.", first.join());
+        assertEquals("Spend less on takeout.", second.join());
+        verify(geminiService, times(1)).generateContent(anyString());
+        assertEquals(1.0, count(AIFeature.INSIGHTS, "miss"));
+        assertEquals(1.0, count(AIFeature.INSIGHTS, "coalesced"));
+    }
+
+    @Test
+    void stream_cachesAssembledTextAndReplaysItAsOneChunk() {
+        when(geminiService.streamContent(eq("How much on travel?"), any())).thenAnswer(invocation -> {
+            Consumer<String> onChunk = invocation.getArgument(1);
+            onChunk.accept("About ");
+            onChunk.accept("₹2,000.");
+            return CompletableFuture.completedFuture("About ₹2,000.");
+        });
+
+        List<String> streamed = new ArrayList<>();
+        assertEquals("About ₹2,000.", aiResponseCache.stream(AIFeature.CHAT, "How much on travel?", streamed::add).join());
+        assertEquals(List.of("About ", "₹2,000."), streamed);
+
+        List<String> replayed = new ArrayList<>();
+        assertEquals("About ₹2,000.", aiResponseCache.stream(AIFeature.CHAT, "How much on travel?", replayed::add).join());
+        assertEquals(List.of("About ₹2,000."), replayed);
+        // Non-streaming callers share the entry
+        assertEquals("About ₹2,000.", aiResponseCache.getOrGenerate(AIFeature.CHAT, "How much on travel?").join());
+
+        verify(geminiService, times(1)).streamContent(anyString(), any());
+        verify(geminiService, never()).generateContent(anyString());
+        assertEquals(1.0, count(AIFeature.CHAT, "miss"));
+        assertEquals(2.0, count(AIFeature.CHAT, "hit"));
+    }
+
+    @Test
+    void stream_doesNotCacheCannedTexts() {
+        when(geminiService.streamContent(eq("q"), any()))
+                .thenReturn(CompletableFuture.completedFuture(GeminiService.NO_RESPONSE_MESSAGE));
+
+        aiResponseCache.stream(AIFeature.CHAT, "q", chunk -> { }).join();
+        aiResponseCache.stream(AIFeature.CHAT, "q", chunk -> { }).join();
+
+        verify(geminiService, times(2)).streamContent(eq("q"), any());
+    }
+
+    @Test
+    void keyFor_dependsOnModelConfigAndPromptContent() {
+        String key = aiResponseCache.keyFor("Categorize: Uber ₹250");
+
+        assertEquals(64, key.length());
+        assertEquals(key, aiResponseCache.keyFor("Categorize: Uber ₹250   \n"));
+        assertNotEquals(key, aiResponseCache.keyFor("Categorize: Uber ₹251"));
+
+        when(geminiConfig.getGenerationConfig()).thenReturn(Map.of("temperature", 0.2));
+        assertNotEquals(key, aiResponseCache.keyFor("Categorize: Uber ₹250"));
+
+        when(geminiConfig.getGenerationConfig()).thenReturn(Map.of("temperature", 0.7));
+        when(geminiConfig.getModel()).thenReturn("gemini-2.5-pro");
+        assertNotEquals(key, aiResponseCache.keyFor("Categorize: Uber ₹250"));
+    }
+
+    @Test
+    void normalize_keepsInnerContentButDropsLayoutNoise() {
+        assertEquals("line one\n\nline two", AIResponseCache.normalize("\n line one  \r\n\r\nline two\t\n"));
+    }
+
+    private double count(AIFeature feature, String result) {
+        return meterRegistry.get("ai.cache.requests")
+                .tag("feature", feature.getTag())
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+}
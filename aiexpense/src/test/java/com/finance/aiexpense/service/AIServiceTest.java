@@ -1,8 +1,10 @@
 package com.finance.aiexpense.service;
 
 import com.finance.aiexpense.dto.AIAnalysisResponse;
+import com.finance.aiexpense.dto.CategorySpendingDTO;
 import com.finance.aiexpense.dto.CategorizedTransaction;
 import com.finance.aiexpense.dto.TransactionDTO;
+import com.finance.aiexpense.enums.AIFeature;
 import com.finance.aiexpense.entity.User;
 import com.finance.aiexpense.enums.SubscriptionTier;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,31 +15,41 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class AIServiceTest {
 
     @Mock
-    private GeminiService geminiService;
+    private AIResponseCache aiResponseCache;
 
     @Mock
-    private TransactionService transactionService;
+    private SpendingRollupService spendingRollupService;
+
+    @Mock
+    private BatchCategorizationService batchCategorizationService;
 
     @InjectMocks
     private AIService aiService;
 
     private User user;
     private List<TransactionDTO> transactions;
+    private List<CategorySpendingDTO> categoryTotals;
 
     @BeforeEach
     void setUp() {
@@ -64,11 +76,15 @@ class AIServiceTest {
                 .build();
 
         transactions = Arrays.asList(transaction1, transaction2);
+
+        categoryTotals = Arrays.asList(
+                new CategorySpendingDTO("Groceries", 100.0, 1L),
+                new CategorySpendingDTO("Travel", 50.0, 1L));
     }
 
     @Test
     void analyzeTransactions_emptyList() {
-        AIAnalysisResponse response = aiService.analyzeTransactions(Collections.emptyList());
+        AIAnalysisResponse response = aiService.analyzeTransactions(Collections.emptyList()).join();
 
         assertNotNull(response);
         assertTrue(response.getCategorizedTransactions().isEmpty());
@@ -77,7 +93,7 @@ class AIServiceTest {
 
     @Test
     void analyzeTransactions_nullList() {
-        AIAnalysisResponse response = aiService.analyzeTransactions(null);
+        AIAnalysisResponse response = aiService.analyzeTransactions(null).join();
 
         assertNotNull(response);
         assertTrue(response.getCategorizedTransactions().isEmpty());
@@ -86,83 +102,139 @@ class AIServiceTest {
 
     @Test
     void analyzeTransactions_success() {
-        String aiResponse = "{\"categorizedTransactions\":[{\"transaction\":\"Grocery shopping: ₹100.00\",\"category\":\"Groceries\"}],\"summary\":\"Test summary\"}";
-        when(geminiService.generateContent(anyString())).thenReturn(CompletableFuture.completedFuture(aiResponse));
+        AIAnalysisResponse analysis = AIAnalysisResponse.builder().summary("Test summary").build();
+        when(batchCategorizationService.categorize(transactions)).thenReturn(CompletableFuture.completedFuture(analysis));
 
-        AIAnalysisResponse response = aiService.analyzeTransactions(transactions);
+        AIAnalysisResponse response = aiService.analyzeTransactions(transactions).join();
 
-        assertNotNull(response);
-        verify(geminiService).generateContent(anyString());
+        assertSame(analysis, response);
+        verify(batchCategorizationService, never()).fallbackAnalysis(any());
     }
 
     @Test
     void analyzeTransactions_fallbackOnException() {
-        when(geminiService.generateContent(anyString())).thenReturn(CompletableFuture.failedFuture(new RuntimeException("AI service error")));
+        AIAnalysisResponse fallback = AIAnalysisResponse.builder().summary("Fallback summary").build();
+        when(batchCategorizationService.categorize(transactions)).thenReturn(CompletableFuture.failedFuture(new RuntimeException("AI service error")));
+        when(batchCategorizationService.fallbackAnalysis(transactions)).thenReturn(fallback);
 
-        AIAnalysisResponse response = aiService.analyzeTransactions(transactions);
+        AIAnalysisResponse response = aiService.analyzeTransactions(transactions).join();
 
-        assertNotNull(response);
-        assertFalse(response.getCategorizedTransactions().isEmpty());
-        assertNotNull(response.getSummary());
+        assertSame(fallback, response);
+    }
+
+    @Test
+    void analyzeTransactions_fallbackWhenCallIsRejected() {
+        AIAnalysisResponse fallback = AIAnalysisResponse.builder().summary("Fallback summary").build();
+        when(batchCategorizationService.categorize(transactions)).thenThrow(new RejectedExecutionException("queue full"));
+        when(batchCategorizationService.fallbackAnalysis(transactions)).thenReturn(fallback);
+
+        CompletableFuture<AIAnalysisResponse> response = aiService.analyzeTransactions(transactions);
+
+        assertSame(fallback, response.join());
     }
 
     @Test
-    void generateInsights_noTransactions() {
-        when(transactionService.getRecentTransactions(any(User.class), anyInt())).thenReturn(Collections.emptyList());
+    void generateModelInsights_noTransactions() {
+        when(spendingRollupService.getCategoryTotalsSince(any(User.class), any(YearMonth.class)))
+                .thenReturn(Collections.emptyList());
 
-        String insights = aiService.generateInsights(user);
+        String insights = aiService.generateModelInsights(user).join();
 
         assertEquals("No transaction data available for insights.", insights);
-        verify(transactionService).getRecentTransactions(user, 3);
+        verify(spendingRollupService).getCategoryTotalsSince(user, YearMonth.now().minusMonths(2));
+        verifyNoInteractions(aiResponseCache);
     }
 
     @Test
-    void generateInsights_success() {
-        when(transactionService.getRecentTransactions(any(User.class), anyInt())).thenReturn(transactions);
+    void generateModelInsights_success() {
+        when(spendingRollupService.getCategoryTotalsSince(any(User.class), any(YearMonth.class)))
+                .thenReturn(categoryTotals);
         String aiResponse = "Financial insights";
-        when(geminiService.generateContent(anyString())).thenReturn(CompletableFuture.completedFuture(aiResponse));
+        when(aiResponseCache.getOrGenerate(any(AIFeature.class), anyString())).thenReturn(CompletableFuture.completedFuture(aiResponse));
 
-        String insights = aiService.generateInsights(user);
+        String insights = aiService.generateModelInsights(user).join();
 
-        assertNotNull(insights);
-        verify(transactionService).getRecentTransactions(user, 3);
-        verify(geminiService).generateContent(anyString());
+        assertEquals("Financial insights", insights);
+        verify(aiResponseCache).getOrGenerate(eq(AIFeature.INSIGHTS), contains("Groceries: ₹100.00, Travel: ₹50.00"));
     }
 
     @Test
-    void generateInsights_fallbackOnException() {
-        when(transactionService.getRecentTransactions(any(User.class), anyInt())).thenReturn(transactions);
-        when(geminiService.generateContent(anyString())).thenReturn(CompletableFuture.failedFuture(new RuntimeException("Error")));
-
-        String insights = aiService.generateInsights(user);
+    void generateModelInsights_doesNotMaskFailures() {
+        when(spendingRollupService.getCategoryTotalsSince(any(User.class), any(YearMonth.class)))
+                .thenReturn(categoryTotals);
+        when(aiResponseCache.getOrGenerate(any(AIFeature.class), anyString())).thenReturn(CompletableFuture.failedFuture(new RuntimeException("Error")));
 
-        assertNotNull(insights);
-        assertTrue(insights.contains("spent"));
+        assertTrue(aiService.generateModelInsights(user).isCompletedExceptionally());
     }
 
     @Test
     void chatWithAI_success() {
-        when(transactionService.getAllTransactions(any(User.class))).thenReturn(transactions);
+        when(spendingRollupService.getAllTimeCategoryTotals(any(User.class))).thenReturn(categoryTotals);
         String aiResponse = "Chat response";
-        when(geminiService.generateContent(anyString())).thenReturn(CompletableFuture.completedFuture(aiResponse));
+        when(aiResponseCache.getOrGenerate(any(AIFeature.class), anyString())).thenReturn(CompletableFuture.completedFuture(aiResponse));
 
-        String response = aiService.chatWithAI("What did I spend on?", user);
+        String response = aiService.chatWithAI("What did I spend on?", user).join();
 
         assertNotNull(response);
         assertEquals("Chat response", response);
-        verify(transactionService).getAllTransactions(user);
-        verify(geminiService).generateContent(anyString());
+        verify(spendingRollupService).getAllTimeCategoryTotals(user);
+        verify(aiResponseCache).getOrGenerate(eq(AIFeature.CHAT), contains("Total Transactions: 2"));
     }
 
     @Test
     void chatWithAI_fallbackOnException() {
-        when(transactionService.getAllTransactions(any(User.class))).thenReturn(transactions);
-        when(geminiService.generateContent(anyString())).thenReturn(CompletableFuture.failedFuture(new RuntimeException("Error")));
+        when(spendingRollupService.getAllTimeCategoryTotals(any(User.class))).thenReturn(categoryTotals);
+        when(aiResponseCache.getOrGenerate(any(AIFeature.class), anyString())).thenReturn(CompletableFuture.failedFuture(new RuntimeException("Error")));
 
-        String response = aiService.chatWithAI("Question", user);
+        String response = aiService.chatWithAI("Question", user).join();
 
         assertNotNull(response);
         assertTrue(response.contains("trouble processing"));
     }
-}
 
+    @Test
+    void streamChatWithAI_forwardsChunks() {
+        when(spendingRollupService.getAllTimeCategoryTotals(any(User.class))).thenReturn(categoryTotals);
+        when(aiResponseCache.stream(eq(AIFeature.CHAT), contains("Total Transactions: 2"), any())).thenAnswer(invocation -> {
+            Consumer<String> onChunk = invocation.getArgument(2);
+            onChunk.accept("Mostly ");
+            onChunk.accept("groceries.");
+            return CompletableFuture.completedFuture("Mostly groceries.");
+        });
+
+        List<String> chunks = new ArrayList<>();
+        String response = aiService.streamChatWithAI("What did I spend on?", user, chunks::add).join();
+
+        assertEquals("Mostly groceries.", response);
+        assertEquals(List.of("Mostly ", "groceries."), chunks);
+    }
+
+    @Test
+    void streamChatWithAI_sendsFallbackWhenNothingWasStreamed() {
+        when(spendingRollupService.getAllTimeCategoryTotals(any(User.class))).thenReturn(categoryTotals);
+        when(aiResponseCache.stream(any(AIFeature.class), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Error")));
+
+        List<String> chunks = new ArrayList<>();
+        String response = aiService.streamChatWithAI("Question", user, chunks::add).join();
+
+        assertTrue(response.contains("trouble processing"));
+        assertEquals(List.of(response), chunks);
+    }
+
+    @Test
+    void streamChatWithAI_failsWhenStreamBreaksPartWay() {
+        when(spendingRollupService.getAllTimeCategoryTotals(any(User.class))).thenReturn(categoryTotals);
+        when(aiResponseCache.stream(any(AIFeature.class), anyString(), any())).thenAnswer(invocation -> {
+            Consumer<String> onChunk = invocation.getArgument(2);
+            onChunk.accept("Mostly ");
+            return CompletableFuture.failedFuture(new RuntimeException("Connection reset"));
+        });
+
+        List<String> chunks = new ArrayList<>();
+        CompletableFuture<String> response = aiService.streamChatWithAI("Question", user, chunks::add);
+
+        assertThrows(CompletionException.class, response::join);
+        assertEquals(List.of("Mostly "), chunks);
+    }
+}
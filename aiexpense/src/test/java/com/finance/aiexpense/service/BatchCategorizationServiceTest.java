@@ -0,0 +1,170 @@
+package com.finance.aiexpense.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finance.aiexpense.dto.AIAnalysisResponse;
+import com.finance.aiexpense.dto.CategorizedTransaction;
+import com.finance.aiexpense.dto.TransactionDTO;
+import com.finance.aiexpense.enums.AIFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchCategorizationServiceTest {
+
+    @Mock
+    private AIResponseCache aiResponseCache;
+
+    @Mock
+    private TransactionCategorizer transactionCategorizer;
+
+    private BatchCategorizationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BatchCategorizationService(aiResponseCache, transactionCategorizer, new ObjectMapper());
+        ReflectionTestUtils.setField(service, "maxTransactionsPerChunk", 2);
+        ReflectionTestUtils.setField(service, "maxParallelChunks", 2);
+    }
+
+    @Test
+    void categorize_mergesChunkResultsInInputOrder() {
+        List<TransactionDTO> transactions = transactions(5);
+        when(aiResponseCache.getOrGenerate(any(AIFeature.class), anyString())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(answerFor(invocation.getArgument(0), "Food")));
+
+        AIAnalysisResponse response = service.categorize(transactions).join();
+
+        verify(aiResponseCache, times(3)).getOrGenerate(eq(AIFeature.ANALYZE), anyString());
+        assertEquals(List.of("Txn 0 ₹100.0", "Txn 1 ₹101.0", "Txn 2 ₹102.0", "Txn 3 ₹103.0", "Txn 4 ₹104.0"),
+                response.getCategorizedTransactions().stream()
+                        .map(CategorizedTransaction::getTransaction)
+                        .collect(Collectors.toList()));
+        assertTrue(response.getCategorizedTransactions().stream().allMatch(c -> "Food".equals(c.getCategory())));
+        assertTrue(response.getSummary().contains("across 5 transactions"));
+        verifyNoInteractions(transactionCategorizer);
+    }
+
+    @Test
+    void categorize_fallsBackPerChunk() {
+        List<TransactionDTO> transactions = transactions(4);
+        when(aiResponseCache.getOrGenerate(any(AIFeature.class), contains("1. Txn 0"))).thenReturn(
+                CompletableFuture.completedFuture("[\"Travel\", \"Travel\"]"));
+        when(aiResponseCache.getOrGenerate(any(AIFeature.class), contains("1. Txn 2"))).thenReturn(
+                CompletableFuture.failedFuture(new RuntimeException("timeout")));
+        when(transactionCategorizer.categorize(anyString())).thenReturn("Others");
+
+        AIAnalysisResponse response = service.categorize(transactions).join();
+
+        assertEquals(List.of("Travel", "Travel", "Others", "Others"), categories(response));
+        verify(transactionCategorizer).categorize("Txn 2");
+        verify(transactionCategorizer).categorize("Txn 3");
+        verifyNoMoreInteractions(transactionCategorizer);
+    }
+
+    @Test
+    void categorize_wrongCountOrUnknownLabelFallsBack() {
+        List<TransactionDTO> transactions = transactions(4);
+        // Too few labels: whole chunk falls back
+        when(aiResponseCache.getOrGenerate(any(AIFeature.class), contains("1. Txn 0"))).thenReturn(
+                CompletableFuture.completedFuture("Sure! [\"Food\"]"));
+        // One unknown label: only that row falls back
+        when(aiResponseCache.getOrGenerate(any(AIFeature.class), contains("1. Txn 2"))).thenReturn(
+                CompletableFuture.completedFuture("```json\n[\"groceries\", \"Crypto\"]\n```"));
+        when(transactionCategorizer.categorize(anyString())).thenReturn("Others");
+
+        AIAnalysisResponse response = service.categorize(transactions).join();
+
+        assertEquals(List.of("Others", "Others", "Groceries", "Others"), categories(response));
+        verify(transactionCategorizer, times(3)).categorize(anyString());
+    }
+
+    @Test
+    void categorize_limitsChunksInFlight() {
+        List<TransactionDTO> transactions = transactions(8);
+        List<CompletableFuture<String>> pending = new ArrayList<>();
+        when(aiResponseCache.getOrGenerate(any(AIFeature.class), anyString())).thenAnswer(invocation -> {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        });
+
+        CompletableFuture<AIAnalysisResponse> result = service.categorize(transactions);
+
+        assertEquals(2, pending.size());
+        pending.get(0).complete("[\"Food\", \"Food\"]");
+        assertEquals(3, pending.size());
+        pending.get(1).complete("[\"Food\", \"Food\"]");
+        pending.get(2).complete("[\"Food\", \"Food\"]");
+        assertEquals(4, pending.size());
+        assertFalse(result.isDone());
+        pending.get(3).complete("[\"Food\", \"Food\"]");
+
+        assertEquals(8, result.join().getCategorizedTransactions().size());
+    }
+
+    @Test
+    void chunk_respectsInputTokenBudget() {
+        ReflectionTestUtils.setField(service, "maxTransactionsPerChunk", 100);
+        ReflectionTestUtils.setField(service, "maxInputTokensPerChunk", 200);
+        String longDescription = "x".repeat(200);
+        List<TransactionDTO> transactions = IntStream.range(0, 3)
+                .mapToObj(i -> TransactionDTO.builder().description(longDescription).amount(1.0).build())
+                .collect(Collectors.toList());
+
+        List<List<TransactionDTO>> chunks = service.chunk(transactions);
+
+        assertEquals(3, chunks.size());
+        assertTrue(chunks.stream().allMatch(chunk -> chunk.size() == 1));
+    }
+
+    @Test
+    void fallbackAnalysis_usesKeywordRules() {
+        when(transactionCategorizer.categorize(anyString())).thenReturn("Food");
+
+        AIAnalysisResponse response = service.fallbackAnalysis(transactions(2));
+
+        assertEquals(List.of("Food", "Food"), categories(response));
+        assertTrue(response.getSummary().contains("Food (₹201.00)"));
+        verifyNoInteractions(aiResponseCache);
+    }
+
+    private List<TransactionDTO> transactions(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> TransactionDTO.builder()
+                        .id((long) i)
+                        .description("Txn " + i)
+                        .amount(100.0 + i)
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private String answerFor(String prompt, String category) {
+        int count = (int) prompt.lines().filter(line -> line.matches("\\d+\\. .*")).count();
+        return IntStream.range(0, count)
+                .mapToObj(i -> "\"" + category + "\"")
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private List<String> categories(AIAnalysisResponse response) {
+        return response.getCategorizedTransactions().stream()
+                .map(CategorizedTransaction::getCategory)
+                .collect(Collectors.toList());
+    }
+}
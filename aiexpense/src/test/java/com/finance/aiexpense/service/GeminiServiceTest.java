@@ -5,15 +5,19 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -29,11 +33,12 @@ class GeminiServiceTest {
     @Mock
     private RestTemplate restTemplate;
 
-    @InjectMocks
     private GeminiService geminiService;
 
     @BeforeEach
     void setUp() {
+        // Run the async call on the test thread
+        geminiService = new GeminiService(geminiConfig, restTemplate, Runnable::run);
         when(geminiConfig.getBaseUrl()).thenReturn("https://generativelanguage.googleapis.com/v1beta");
         when(geminiConfig.getModel()).thenReturn("gemini-pro");
         when(geminiConfig.getApiKey()).thenReturn("test-api-key");
@@ -88,5 +93,33 @@ class GeminiServiceTest {
         assertNotNull(result);
         assertTrue(result.contains("AI service is temporarily unavailable"));
     }
-}
 
+    @Test
+    void streamContent_forwardsChunksAndReturnsAssembledText() {
+        String stream = "data: {\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"You spent \"}]}}]}\r\n\r\n" +
+                "data: {\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"₹500 on food.\"}]}}]}\r\n\r\n" +
+                "data: {\"candidates\":[{\"finishReason\":\"STOP\"}]}\r\n\r\n";
+        MockClientHttpResponse response = new MockClientHttpResponse(stream.getBytes(StandardCharsets.UTF_8), HttpStatus.OK);
+        when(restTemplate.execute(contains(":streamGenerateContent?alt=sse"), eq(HttpMethod.POST), any(), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> invocation.<ResponseExtractor<String>>getArgument(3).extractData(response));
+
+        List<String> chunks = new ArrayList<>();
+        String result = geminiService.streamContent("Test prompt", chunks::add).join();
+
+        assertEquals(List.of("You spent ", "₹500 on food."), chunks);
+        assertEquals("You spent ₹500 on food.", result);
+    }
+
+    @Test
+    void streamContent_emptyStream_returnsNoResponseMessage() {
+        MockClientHttpResponse response = new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        when(restTemplate.execute(anyString(), eq(HttpMethod.POST), any(), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> invocation.<ResponseExtractor<String>>getArgument(3).extractData(response));
+
+        List<String> chunks = new ArrayList<>();
+        String result = geminiService.streamContent("Test prompt", chunks::add).join();
+
+        assertTrue(chunks.isEmpty());
+        assertEquals(GeminiService.NO_RESPONSE_MESSAGE, result);
+    }
+}
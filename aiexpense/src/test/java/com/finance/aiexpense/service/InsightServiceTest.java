@@ -0,0 +1,146 @@
+package com.finance.aiexpense.service;
+
+import com.finance.aiexpense.dto.InsightDTO;
+import com.finance.aiexpense.entity.User;
+import com.finance.aiexpense.entity.UserInsight;
+import com.finance.aiexpense.repository.UserInsightRepository;
+import com.finance.aiexpense.repository.UserRepository;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InsightServiceTest {
+
+    @Mock
+    private AIService aiService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserInsightRepository userInsightRepository;
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private List<Runnable> submitted;
+    private InsightService insightService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        submitted = new ArrayList<>();
+        insightService = new InsightService(aiService, userRepository, userInsightRepository,
+                circuitBreakerRegistry, submitted::add, new SimpleMeterRegistry());
+        insightService.init();
+        user = User.builder().id(1L).email("test@example.com").build();
+    }
+
+    @Test
+    void getInsights_returnsStoredInsightWithTimestamp() {
+        LocalDateTime generatedAt = LocalDateTime.now().minusHours(1);
+        when(userInsightRepository.findById(1L))
+                .thenReturn(Optional.of(new UserInsight(1L, "Spend less on food.", generatedAt)));
+
+        InsightDTO result = insightService.getInsights(user);
+
+        assertEquals("Spend less on food.", result.getInsights());
+        assertEquals(generatedAt, result.getGeneratedAt());
+        assertFalse(result.isRefreshing());
+        verifyNoInteractions(aiService);
+    }
+
+    @Test
+    void getInsights_withoutStoredInsight_queuesOneAndSaysSo() {
+        when(userInsightRepository.findById(1L)).thenReturn(Optional.empty());
+
+        InsightDTO result = insightService.getInsights(user);
+
+        assertEquals(InsightService.PREPARING_MESSAGE, result.getInsights());
+        assertNull(result.getGeneratedAt());
+        assertTrue(result.isRefreshing());
+        assertTrue(insightService.isDirty(1L));
+    }
+
+    @Test
+    void getInsights_oldInsight_isServedAndQueuedForRefresh() {
+        when(userInsightRepository.findById(1L))
+                .thenReturn(Optional.of(new UserInsight(1L, "Old", LocalDateTime.now().minusDays(2))));
+
+        InsightDTO result = insightService.getInsights(user);
+
+        assertEquals("Old", result.getInsights());
+        assertTrue(result.isRefreshing());
+        assertTrue(insightService.isDirty(1L));
+    }
+
+    @Test
+    void processDirtyUsers_regeneratesAndStoresInsight() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(aiService.generateModelInsights(user)).thenReturn(CompletableFuture.completedFuture("New insight"));
+        insightService.markDirty(1L);
+
+        insightService.processDirtyUsers();
+        assertEquals(1, submitted.size());
+        submitted.get(0).run();
+
+        ArgumentCaptor<UserInsight> saved = ArgumentCaptor.forClass(UserInsight.class);
+        verify(userInsightRepository).save(saved.capture());
+        assertEquals(1L, saved.getValue().getUserId());
+        assertEquals("New insight", saved.getValue().getContent());
+        assertNotNull(saved.getValue().getGeneratedAt());
+        assertFalse(insightService.isDirty(1L));
+    }
+
+    @Test
+    void processDirtyUsers_skipsWhileGeminiCircuitIsOpen() {
+        circuitBreakerRegistry.circuitBreaker("geminiAI").transitionToOpenState();
+        insightService.markDirty(1L);
+
+        insightService.processDirtyUsers();
+
+        assertTrue(submitted.isEmpty());
+        assertTrue(insightService.isDirty(1L));
+    }
+
+    @Test
+    void processDirtyUsers_keepsUsersDirtyWhenPoolIsFull() {
+        insightService = new InsightService(aiService, userRepository, userInsightRepository, circuitBreakerRegistry,
+                task -> { throw new RejectedExecutionException("full"); }, new SimpleMeterRegistry());
+        insightService.init();
+        insightService.markDirty(1L);
+
+        insightService.processDirtyUsers();
+
+        assertTrue(insightService.isDirty(1L));
+    }
+
+    @Test
+    void refresh_fallbackTextKeepsUserDirtyAndStoresNothing() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        // The geminiAI breaker's fallback completes normally with the canned message
+        when(aiService.generateModelInsights(user))
+                .thenReturn(CompletableFuture.completedFuture(GeminiService.FALLBACK_MESSAGE));
+
+        insightService.refresh(1L);
+
+        verify(userInsightRepository, never()).save(any());
+        assertTrue(insightService.isDirty(1L));
+    }
+}
@@ -0,0 +1,162 @@
+package com.finance.aiexpense.service;
+
+import com.finance.aiexpense.dto.PaymentRequest;
+import com.finance.aiexpense.dto.PaymentResponse;
+import com.finance.aiexpense.entity.User;
+import com.finance.aiexpense.exception.BadRequestException;
+import com.finance.aiexpense.exception.ResourceConflictException;
+import com.finance.aiexpense.repository.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentIdempotencyServiceTest {
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentIdempotencyService idempotencyService;
+    private User user;
+    private PaymentRequest request;
+    private PaymentResponse response;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        idempotencyService = new PaymentIdempotencyService(paymentService, idempotencyKeyRepository, meterRegistry);
+        idempotencyService.init();
+
+        user = User.builder().id(1L).email("test@example.com").build();
+        request = new PaymentRequest();
+        request.setAmount(199.0);
+        request.setPaymentMethod("UPI");
+        request.setSubscriptionTier("PREMIUM");
+        request.setDurationMonths(1);
+        response = PaymentResponse.builder().success(true).orderId("order_1").transactionId("txn_1").build();
+    }
+
+    @Test
+    void createPaymentOrder_withoutKey_usesPlainPath() {
+        when(paymentService.createPaymentOrder(request, user)).thenReturn(response);
+
+        assertEquals(response, idempotencyService.createPaymentOrder(request, user, null));
+
+        verify(paymentService, never()).createPaymentOrder(any(), any(), anyString(), anyString());
+    }
+
+    @Test
+    void createPaymentOrder_replayReturnsOriginalResponseWithoutNewOrder() {
+        when(paymentService.createPaymentOrder(eq(request), eq(user), eq("key-1"), anyString())).thenReturn(response);
+
+        PaymentResponse first = idempotencyService.createPaymentOrder(request, user, "key-1");
+        PaymentResponse second = idempotencyService.createPaymentOrder(request, user, "key-1");
+
+        assertSame(first, second);
+        verify(paymentService, times(1)).createPaymentOrder(any(), any(), anyString(), anyString());
+        assertEquals(1.0, count("created"));
+        assertEquals(1.0, count("replayed"));
+    }
+
+    @Test
+    void createPaymentOrder_keyReusedForDifferentRequest_conflicts() {
+        when(paymentService.createPaymentOrder(eq(request), eq(user), eq("key-1"), anyString())).thenReturn(response);
+        idempotencyService.createPaymentOrder(request, user, "key-1");
+
+        PaymentRequest other = new PaymentRequest();
+        other.setAmount(999.0);
+        other.setPaymentMethod("UPI");
+        other.setSubscriptionTier("ENTERPRISE");
+        other.setDurationMonths(12);
+
+        assertThrows(ResourceConflictException.class, () -> idempotencyService.createPaymentOrder(other, user, "key-1"));
+    }
+
+    @Test
+    void createPaymentOrder_keysAreScopedPerUser() {
+        User otherUser = User.builder().id(2L).email("other@example.com").build();
+        when(paymentService.createPaymentOrder(any(), any(), eq("key-1"), anyString())).thenReturn(response);
+
+        idempotencyService.createPaymentOrder(request, user, "key-1");
+        idempotencyService.createPaymentOrder(request, otherUser, "key-1");
+
+        verify(paymentService, times(2)).createPaymentOrder(any(), any(), eq("key-1"), anyString());
+    }
+
+    @Test
+    void createPaymentOrder_concurrentDuplicatesShareOneOrder() throws Exception {
+        CountDownLatch inGateway = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(paymentService.createPaymentOrder(eq(request), eq(user), eq("key-1"), anyString())).thenAnswer(invocation -> {
+            inGateway.countDown();
+            release.await();
+            return response;
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<PaymentResponse> first = pool.submit(() -> idempotencyService.createPaymentOrder(request, user, "key-1"));
+            assertTrue(inGateway.await(5, TimeUnit.SECONDS));
+            Future<PaymentResponse> second = pool.submit(() -> idempotencyService.createPaymentOrder(request, user, "key-1"));
+            Thread.sleep(50);
+            release.countDown();
+
+            assertSame(response, first.get(5, TimeUnit.SECONDS));
+            assertSame(response, second.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(paymentService, times(1)).createPaymentOrder(any(), any(), anyString(), anyString());
+    }
+
+    @Test
+    void createPaymentOrder_failureIsNotRemembered() {
+        when(paymentService.createPaymentOrder(eq(request), eq(user), eq("key-1"), anyString()))
+                .thenThrow(new IllegalStateException("gateway down"))
+                .thenReturn(response);
+
+        assertThrows(IllegalStateException.class, () -> idempotencyService.createPaymentOrder(request, user, "key-1"));
+        assertEquals(response, idempotencyService.createPaymentOrder(request, user, "key-1"));
+    }
+
+    @Test
+    void createPaymentOrder_rejectsOverlongKey() {
+        String key = "k".repeat(PaymentIdempotencyService.MAX_KEY_LENGTH + 1);
+
+        assertThrows(BadRequestException.class, () -> idempotencyService.createPaymentOrder(request, user, key));
+        verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    void fingerprint_changesWithOrderDefiningFields() {
+        String fingerprint = PaymentIdempotencyService.fingerprint(request);
+
+        assertEquals(64, fingerprint.length());
+        assertEquals(fingerprint, PaymentIdempotencyService.fingerprint(request));
+        request.setDurationMonths(12);
+        assertNotEquals(fingerprint, PaymentIdempotencyService.fingerprint(request));
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("payments.idempotency.requests").tag("result", result).counter().count();
+    }
+}
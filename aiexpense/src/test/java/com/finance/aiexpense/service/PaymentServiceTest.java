@@ -1,5 +1,6 @@
 package com.finance.aiexpense.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.finance.aiexpense.dto.PaymentRequest;
 import com.finance.aiexpense.dto.PaymentResponse;
 import com.finance.aiexpense.dto.SubscriptionPlanDTO;
@@ -10,6 +11,7 @@ import com.finance.aiexpense.enums.PaymentStatus;
 import com.finance.aiexpense.enums.SubscriptionTier;
 import com.finance.aiexpense.payment.factory.PaymentStrategyFactory;
 import com.finance.aiexpense.payment.strategy.PaymentStrategy;
+import com.finance.aiexpense.repository.IdempotencyKeyRepository;
 import com.finance.aiexpense.repository.PaymentRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -43,6 +45,12 @@ class PaymentServiceTest {
     @Mock
     private PaymentStrategy paymentStrategy;
 
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -0,0 +1,180 @@
+package com.finance.aiexpense.service;
+
+import com.finance.aiexpense.entity.LimitType;
+import com.finance.aiexpense.entity.User;
+import com.finance.aiexpense.enums.QuotaWindow;
+import com.finance.aiexpense.enums.SubscriptionTier;
+import com.finance.aiexpense.exception.RateLimitExceededException;
+import com.finance.aiexpense.repository.QuotaCounterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuotaServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final LocalDate MONTH_START = TODAY.withDayOfMonth(1);
+
+    @Mock
+    private QuotaCounterRepository quotaCounterRepository;
+
+    @InjectMocks
+    private QuotaService quotaService;
+
+    private User freeUser;
+    private User premiumUser;
+
+    @BeforeEach
+    void setUp() {
+        freeUser = User.builder()
+                .id(1L)
+                .email("free@example.com")
+                .subscriptionTier(SubscriptionTier.FREE)
+                .build();
+
+        premiumUser = User.builder()
+                .id(2L)
+                .email("premium@example.com")
+                .subscriptionTier(SubscriptionTier.PREMIUM)
+                .build();
+    }
+
+    @Test
+    void consume_checksEveryMeteredWindowWithOneUpdateEach() {
+        when(quotaCounterRepository.tryConsume(eq(1L), eq("TRANSACTION"), anyString(), any(LocalDate.class), eq(1L), anyLong()))
+                .thenReturn(1);
+
+        quotaService.consume(freeUser, LimitType.TRANSACTION, 1);
+
+        verify(quotaCounterRepository).tryConsume(1L, "TRANSACTION", "MONTHLY", MONTH_START, 1L,
+                SubscriptionTier.FREE.getMonthlyTransactionLimit());
+        verify(quotaCounterRepository).tryConsume(1L, "TRANSACTION", "LIFETIME", LocalDate.EPOCH, 1L,
+                SubscriptionTier.FREE.getTotalTransactionLimit());
+        verify(quotaCounterRepository, never()).tryConsume(anyLong(), anyString(), eq("DAILY"), any(), anyLong(), anyLong());
+        verify(quotaCounterRepository, never()).seedTransactionCounter(anyLong(), anyString(), any(), any());
+    }
+
+    @Test
+    void consume_skipsUnlimitedWindows() {
+        when(quotaCounterRepository.tryConsume(anyLong(), anyString(), anyString(), any(LocalDate.class), anyLong(), anyLong()))
+                .thenReturn(1);
+
+        quotaService.consume(premiumUser, LimitType.TRANSACTION, 1);
+
+        // PREMIUM has no monthly cap, only the lifetime one
+        verify(quotaCounterRepository, times(1))
+                .tryConsume(anyLong(), anyString(), anyString(), any(LocalDate.class), anyLong(), anyLong());
+        verify(quotaCounterRepository).tryConsume(eq(2L), eq("TRANSACTION"), eq("LIFETIME"), any(), eq(1L), anyLong());
+    }
+
+    @Test
+    void consume_missingCounterIsSeededFromRealCountThenRetried() {
+        when(quotaCounterRepository.tryConsume(eq(1L), eq("TRANSACTION"), eq("MONTHLY"), any(), eq(1L), anyLong()))
+                .thenReturn(0, 1);
+        when(quotaCounterRepository.tryConsume(eq(1L), eq("TRANSACTION"), eq("LIFETIME"), any(), eq(1L), anyLong()))
+                .thenReturn(1);
+        when(quotaCounterRepository.seedTransactionCounter(1L, "MONTHLY", MONTH_START, MONTH_START.plusMonths(1)))
+                .thenReturn(1);
+
+        quotaService.consume(freeUser, LimitType.TRANSACTION, 1);
+
+        verify(quotaCounterRepository, times(2)).tryConsume(eq(1L), eq("TRANSACTION"), eq("MONTHLY"), any(), eq(1L), anyLong());
+    }
+
+    @Test
+    void consume_counterSeededByConcurrentRequest_isStillRetried() {
+        when(quotaCounterRepository.tryConsume(eq(1L), eq("TRANSACTION"), eq("MONTHLY"), any(), eq(1L), anyLong()))
+                .thenReturn(0, 1);
+        when(quotaCounterRepository.tryConsume(eq(1L), eq("TRANSACTION"), eq("LIFETIME"), any(), eq(1L), anyLong()))
+                .thenReturn(1);
+        // Another request inserted the counter between our UPDATE and our INSERT
+        when(quotaCounterRepository.seedTransactionCounter(1L, "MONTHLY", MONTH_START, MONTH_START.plusMonths(1)))
+                .thenReturn(0);
+
+        assertDoesNotThrow(() -> quotaService.consume(freeUser, LimitType.TRANSACTION, 1));
+
+        verify(quotaCounterRepository, times(2)).tryConsume(eq(1L), eq("TRANSACTION"), eq("MONTHLY"), any(), eq(1L), anyLong());
+        verify(quotaCounterRepository, never()).findUsed(anyLong(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void consume_overLimit_throwsWithUsage() {
+        int limit = SubscriptionTier.FREE.getMonthlyTransactionLimit();
+        when(quotaCounterRepository.tryConsume(eq(1L), eq("TRANSACTION"), eq("MONTHLY"), any(), eq(1L), anyLong()))
+                .thenReturn(0);
+        // Counter already existed, so nothing is seeded and the retry fails too
+        when(quotaCounterRepository.seedTransactionCounter(anyLong(), anyString(), any(), any())).thenReturn(0);
+        when(quotaCounterRepository.findUsed(1L, "TRANSACTION", "MONTHLY", MONTH_START))
+                .thenReturn(Optional.of((long) limit));
+
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> quotaService.consume(freeUser, LimitType.TRANSACTION, 1));
+
+        assertTrue(e.getMessage().startsWith("Monthly transaction limit reached"));
+        assertTrue(e.getMessage().contains(limit + "/" + limit));
+        assertTrue(e.getMessage().endsWith("Upgrade to Premium for a higher limit!"));
+        verify(quotaCounterRepository, times(2)).tryConsume(eq(1L), eq("TRANSACTION"), eq("MONTHLY"), any(), eq(1L), anyLong());
+        verify(quotaCounterRepository, never()).tryConsume(anyLong(), anyString(), eq("LIFETIME"), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void consume_overLimit_premiumUserIsPointedAtEnterprise() {
+        int limit = SubscriptionTier.PREMIUM.getTotalTransactionLimit();
+        when(quotaCounterRepository.tryConsume(eq(2L), eq("TRANSACTION"), eq("LIFETIME"), any(), eq(1L), anyLong()))
+                .thenReturn(0);
+        when(quotaCounterRepository.seedTransactionCounter(anyLong(), anyString(), any(), any())).thenReturn(0);
+        when(quotaCounterRepository.findUsed(2L, "TRANSACTION", "LIFETIME", LocalDate.EPOCH))
+                .thenReturn(Optional.of((long) limit));
+
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> quotaService.consume(premiumUser, LimitType.TRANSACTION, 1));
+
+        assertFalse(e.getMessage().contains("Premium"));
+        assertTrue(e.getMessage().endsWith("Upgrade to Enterprise for a higher limit!"));
+    }
+
+    @Test
+    void release_givesBackQuotaInTheWindowsTheRowWasCountedIn() {
+        LocalDate createdOn = LocalDate.of(2024, 3, 14);
+
+        quotaService.release(freeUser, LimitType.TRANSACTION, 1, createdOn);
+
+        verify(quotaCounterRepository).release(1L, "TRANSACTION", "MONTHLY", LocalDate.of(2024, 3, 1), 1L);
+        verify(quotaCounterRepository).release(1L, "TRANSACTION", "LIFETIME", LocalDate.EPOCH, 1L);
+    }
+
+    @Test
+    void reconcile_correctsDriftAndDropsExpiredCounters() {
+        when(quotaCounterRepository.reconcileTransactionCounters(TODAY)).thenReturn(2);
+        when(quotaCounterRepository.deleteExpired(TODAY)).thenReturn(5);
+
+        quotaService.reconcile();
+
+        verify(quotaCounterRepository).reconcileTransactionCounters(TODAY);
+        verify(quotaCounterRepository).deleteExpired(TODAY);
+    }
+
+    @Test
+    void quotaWindow_bounds() {
+        LocalDate date = LocalDate.of(2024, 2, 29);
+
+        assertEquals(LocalDate.of(2024, 2, 1), QuotaWindow.MONTHLY.start(date));
+        assertEquals(LocalDate.of(2024, 3, 1), QuotaWindow.MONTHLY.end(date));
+        assertEquals(date.plusDays(1), QuotaWindow.DAILY.end(date));
+        assertTrue(QuotaWindow.LIFETIME.end(date).isAfter(date.plusYears(1000)));
+    }
+}
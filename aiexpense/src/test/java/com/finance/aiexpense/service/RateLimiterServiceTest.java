@@ -1,11 +1,11 @@
 package com.finance.aiexpense.service;
 
 import com.finance.aiexpense.entity.LimitType;
-import com.finance.aiexpense.entity.RateLimit;
 import com.finance.aiexpense.entity.User;
 import com.finance.aiexpense.enums.SubscriptionTier;
 import com.finance.aiexpense.exception.RateLimitExceededException;
-import com.finance.aiexpense.repository.RateLimitRepository;
+import com.finance.aiexpense.ratelimit.RateLimitDecision;
+import com.finance.aiexpense.ratelimit.RateLimitEngine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,25 +14,24 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class RateLimiterServiceTest {
 
     @Mock
-    private RateLimitRepository rateLimitRepository;
+    private RateLimitEngine rateLimitEngine;
 
     @InjectMocks
     private RateLimiterService rateLimiterService;
 
     private User freeUser;
     private User premiumUser;
-    private RateLimit rateLimit;
 
     @BeforeEach
     void setUp() {
@@ -47,51 +46,34 @@ class RateLimiterServiceTest {
                 .email("premium@example.com")
                 .subscriptionTier(SubscriptionTier.PREMIUM)
                 .build();
-
-        rateLimit = RateLimit.builder()
-                .id(1L)
-                .user(freeUser)
-                .limitType(LimitType.AI_CHAT)
-                .date(LocalDate.now())
-                .requestCount(0)
-                .build();
     }
 
     @Test
-    void checkAndIncrementAIChatLimit_success() {
-        when(rateLimitRepository.findByUserAndLimitTypeAndDate(any(User.class), any(LimitType.class), any(LocalDate.class)))
-                .thenReturn(Optional.of(rateLimit));
-        when(rateLimitRepository.save(any(RateLimit.class))).thenReturn(rateLimit);
+    void checkAndIncrementAIChatLimit_success_returnsRemaining() {
+        int limit = SubscriptionTier.FREE.getDailyAIChatLimit();
+        when(rateLimitEngine.tryAcquire(eq(1L), eq(LimitType.AI_CHAT), any(LocalDate.class), eq(limit)))
+                .thenReturn(new RateLimitDecision(true, 1, limit));
 
-        assertDoesNotThrow(() -> rateLimiterService.checkAndIncrementAIChatLimit(freeUser));
-        verify(rateLimitRepository).save(any(RateLimit.class));
-    }
+        int remaining = rateLimiterService.checkAndIncrementAIChatLimit(freeUser);
 
-    @Test
-    void checkAndIncrementAIChatLimit_createsNewRateLimit() {
-        when(rateLimitRepository.findByUserAndLimitTypeAndDate(any(User.class), any(LimitType.class), any(LocalDate.class)))
-                .thenReturn(Optional.empty());
-        when(rateLimitRepository.save(any(RateLimit.class))).thenReturn(rateLimit);
-
-        assertDoesNotThrow(() -> rateLimiterService.checkAndIncrementAIChatLimit(freeUser));
-        verify(rateLimitRepository).save(any(RateLimit.class));
+        assertEquals(limit - 1, remaining);
+        verify(rateLimitEngine).tryAcquire(1L, LimitType.AI_CHAT, LocalDate.now(), limit);
     }
 
     @Test
     void checkAndIncrementAIChatLimit_exceedsLimit_throwsException() {
-        rateLimit.setRequestCount(SubscriptionTier.FREE.getDailyAIChatLimit());
-        when(rateLimitRepository.findByUserAndLimitTypeAndDate(any(User.class), any(LimitType.class), any(LocalDate.class)))
-                .thenReturn(Optional.of(rateLimit));
+        int limit = SubscriptionTier.FREE.getDailyAIChatLimit();
+        when(rateLimitEngine.tryAcquire(any(), any(LimitType.class), any(LocalDate.class), anyInt()))
+                .thenReturn(new RateLimitDecision(false, limit, limit));
 
-        assertThrows(RateLimitExceededException.class, () -> rateLimiterService.checkAndIncrementAIChatLimit(freeUser));
-        verify(rateLimitRepository, never()).save(any(RateLimit.class));
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> rateLimiterService.checkAndIncrementAIChatLimit(freeUser));
+        assertTrue(e.getMessage().contains(limit + "/" + limit));
     }
 
     @Test
-    void getRemainingAIChats_withExistingRateLimit() {
-        rateLimit.setRequestCount(1);
-        when(rateLimitRepository.findByUserAndLimitTypeAndDate(any(User.class), any(LimitType.class), any(LocalDate.class)))
-                .thenReturn(Optional.of(rateLimit));
+    void getRemainingAIChats_withUsage() {
+        when(rateLimitEngine.getUsed(eq(1L), eq(LimitType.AI_CHAT), any(LocalDate.class))).thenReturn(1);
 
         int remaining = rateLimiterService.getRemainingAIChats(freeUser);
 
@@ -100,9 +82,8 @@ class RateLimiterServiceTest {
     }
 
     @Test
-    void getRemainingAIChats_withoutRateLimit() {
-        when(rateLimitRepository.findByUserAndLimitTypeAndDate(any(User.class), any(LimitType.class), any(LocalDate.class)))
-                .thenReturn(Optional.empty());
+    void getRemainingAIChats_withoutUsage() {
+        when(rateLimitEngine.getUsed(any(), any(LimitType.class), any(LocalDate.class))).thenReturn(0);
 
         int remaining = rateLimiterService.getRemainingAIChats(freeUser);
 
@@ -111,12 +92,10 @@ class RateLimiterServiceTest {
 
     @Test
     void getRemainingAIChats_premiumUser() {
-        when(rateLimitRepository.findByUserAndLimitTypeAndDate(any(User.class), any(LimitType.class), any(LocalDate.class)))
-                .thenReturn(Optional.empty());
+        when(rateLimitEngine.getUsed(any(), any(LimitType.class), any(LocalDate.class))).thenReturn(0);
 
         int remaining = rateLimiterService.getRemainingAIChats(premiumUser);
 
         assertEquals(SubscriptionTier.PREMIUM.getDailyAIChatLimit(), remaining);
     }
 }
-
@@ -0,0 +1,117 @@
+package com.finance.aiexpense.service;
+
+import com.finance.aiexpense.dto.TransactionRequest;
+import com.finance.aiexpense.repository.MonthlyCategoryTotalRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpendingRollupServiceTest {
+
+    @Mock
+    private MonthlyCategoryTotalRepository rollupRepository;
+
+    @InjectMocks
+    private SpendingRollupService rollupService;
+
+    private final LocalDate march = LocalDate.of(2024, 3, 1);
+
+    @Test
+    void recordAdded_appliesPositiveDeltaToMonthBucket() {
+        rollupService.recordAdded(1L, LocalDate.of(2024, 3, 17), "Food", 250.0);
+
+        verify(rollupRepository).applyDelta(1L, march, "Food", 250.0, 1);
+    }
+
+    @Test
+    void recordAdded_nullCategory_goesToOthers() {
+        rollupService.recordAdded(1L, LocalDate.of(2024, 3, 17), null, 10.0);
+
+        verify(rollupRepository).applyDelta(1L, march, SpendingRollupService.UNCATEGORIZED, 10.0, 1);
+    }
+
+    @Test
+    void recordRemoved_appliesNegativeDeltaAndDropsEmptyBucket() {
+        rollupService.recordRemoved(1L, LocalDate.of(2024, 3, 5), "Food", 250.0);
+
+        verify(rollupRepository).applyDelta(1L, march, "Food", -250.0, -1);
+        verify(rollupRepository).deleteIfEmpty(1L, march, "Food");
+    }
+
+    @Test
+    void recordCategoryChange_movesAmountBetweenCategories() {
+        rollupService.recordCategoryChange(1L, LocalDate.of(2024, 3, 5), 80.0, "Others", "Travel");
+
+        verify(rollupRepository).applyDelta(1L, march, "Others", -80.0, -1);
+        verify(rollupRepository).applyDelta(1L, march, "Travel", 80.0, 1);
+    }
+
+    @Test
+    void recordCategoryChange_sameCategory_isNoOp() {
+        rollupService.recordCategoryChange(1L, LocalDate.of(2024, 3, 5), 80.0, null, "Others");
+
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    void recordAddedBatch_groupsRowsByMonthAndCategory() {
+        rollupService.recordAddedBatch(1L, List.of(
+                row("2024-03-01", "Food", 100.0),
+                row("2024-03-20", "Food", 50.0),
+                row("2024-04-02", "Food", 10.0)));
+
+        verify(rollupRepository).applyDelta(1L, march, "Food", 150.0, 2L);
+        verify(rollupRepository).applyDelta(1L, LocalDate.of(2024, 4, 1), "Food", 10.0, 1L);
+        verify(rollupRepository, times(2)).applyDelta(anyLong(), any(), anyString(), anyDouble(), anyLong());
+    }
+
+    @Test
+    void rebuildAll_takesTheRebuildLockBeforeDeleting() {
+        rollupService.rebuildAll();
+
+        InOrder inOrder = inOrder(rollupRepository);
+        inOrder.verify(rollupRepository).lockForRebuild(SpendingRollupService.REBUILD_LOCK_KEY);
+        inOrder.verify(rollupRepository).deleteAllRows();
+        inOrder.verify(rollupRepository).rebuildAllRows();
+    }
+
+    @Test
+    void initializeIfEmpty_checksUnderTheRebuildLock() {
+        when(rollupRepository.count()).thenReturn(0L);
+
+        rollupService.initializeIfEmpty();
+
+        InOrder inOrder = inOrder(rollupRepository);
+        inOrder.verify(rollupRepository).lockForRebuild(SpendingRollupService.REBUILD_LOCK_KEY);
+        inOrder.verify(rollupRepository).count();
+        inOrder.verify(rollupRepository).rebuildAllRows();
+    }
+
+    @Test
+    void initializeIfEmpty_alreadyFilled_doesNotRebuild() {
+        when(rollupRepository.count()).thenReturn(3L);
+
+        rollupService.initializeIfEmpty();
+
+        verify(rollupRepository, never()).rebuildAllRows();
+    }
+
+    private TransactionRequest row(String date, String category, double amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setDate(LocalDate.parse(date));
+        request.setCategory(category);
+        request.setAmount(amount);
+        request.setDescription("row");
+        return request;
+    }
+}
@@ -22,6 +22,9 @@ class SubscriptionServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserService userService;
+
     @InjectMocks
     private SubscriptionService subscriptionService;
 
@@ -46,6 +49,7 @@ class SubscriptionServiceTest {
         assertNotNull(user.getSubscriptionStartDate());
         assertNotNull(user.getSubscriptionEndDate());
         verify(userRepository).save(user);
+        verify(userService).evictPrincipal("test@example.com");
     }
 
     @Test
@@ -86,6 +90,7 @@ class SubscriptionServiceTest {
         assertEquals(SubscriptionTier.FREE, user.getSubscriptionTier());
         assertNull(user.getSubscriptionEndDate());
         verify(userRepository).save(user);
+        verify(userService).evictPrincipal("test@example.com");
     }
 }
 
@@ -0,0 +1,86 @@
+package com.finance.aiexpense.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCategorizerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private TransactionCategorizer categorizer;
+
+    @BeforeEach
+    void setUp() {
+        categorizer = new TransactionCategorizer(new DefaultResourceLoader(), new ObjectMapper());
+    }
+
+    @Test
+    void bundledRules_matchLegacyCategories() {
+        categorizer.init();
+
+        assertEquals("Travel", categorizer.categorize("Uber ride"));
+        assertEquals("Food", categorizer.categorize("Zomato order"));
+        assertEquals("Shopping", categorizer.categorize("Amazon purchase"));
+        assertEquals("Groceries", categorizer.categorize("DMart weekly"));
+        assertEquals("Entertainment", categorizer.categorize("Netflix"));
+        assertEquals("Utilities", categorizer.categorize("Electricity bill"));
+        assertEquals("Healthcare", categorizer.categorize("Apollo Pharmacy"));
+        assertEquals("Education", categorizer.categorize("Online course"));
+        assertEquals("Others", categorizer.categorize("Rent"));
+        // Legacy checked Travel before Food
+        assertEquals("Travel", categorizer.categorize("Food at train station"));
+    }
+
+    @Test
+    void reloadIfChanged_picksUpEditedRuleFile() throws IOException {
+        Path rules = tempDir.resolve("rules.json");
+        writeRules(rules, "{\"rules\":[{\"category\":\"Food\",\"priority\":1,\"keywords\":[\"cafe\"]}]}", 1_000);
+        ReflectionTestUtils.setField(categorizer, "rulesLocation", rules.toUri().toString());
+        categorizer.init();
+        assertEquals("Food", categorizer.categorize("Cafe Mocha"));
+        assertEquals("Others", categorizer.categorize("Gym membership"));
+
+        writeRules(rules, "{\"rules\":[{\"category\":\"Health\",\"priority\":1,\"keywords\":[\"gym\"]}]}", 2_000);
+        categorizer.reloadIfChanged();
+
+        assertEquals("Health", categorizer.categorize("Gym membership"));
+        assertEquals("Others", categorizer.categorize("Cafe Mocha"));
+    }
+
+    @Test
+    void reload_keepsPreviousRulesWhenFileIsBroken() throws IOException {
+        Path rules = tempDir.resolve("rules.json");
+        writeRules(rules, "{\"rules\":[{\"category\":\"Food\",\"priority\":1,\"keywords\":[\"cafe\"]}]}", 1_000);
+        ReflectionTestUtils.setField(categorizer, "rulesLocation", rules.toUri().toString());
+        categorizer.init();
+
+        writeRules(rules, "{not json", 2_000);
+
+        assertFalse(categorizer.reload());
+        assertEquals("Food", categorizer.categorize("Cafe Mocha"));
+    }
+
+    @Test
+    void init_failsWhenRulesAreMissing() {
+        ReflectionTestUtils.setField(categorizer, "rulesLocation", "classpath:does-not-exist.json");
+
+        assertThrows(IllegalStateException.class, () -> categorizer.init());
+    }
+
+    private void writeRules(Path path, String json, long modifiedMillis) throws IOException {
+        Files.writeString(path, json);
+        Files.setLastModifiedTime(path, FileTime.fromMillis(modifiedMillis));
+    }
+}
@@ -0,0 +1,77 @@
+package com.finance.aiexpense.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.finance.aiexpense.dto.TransactionDTO;
+import com.finance.aiexpense.entity.User;
+import com.finance.aiexpense.enums.ExportFormat;
+import com.finance.aiexpense.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private TransactionExportService exportService;
+
+    private User user;
+    private TransactionDTO transaction;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new TransactionExportService(transactionRepository, objectMapper);
+
+        user = User.builder().id(1L).email("test@example.com").build();
+        transaction = TransactionDTO.builder()
+                .id(7L)
+                .description("Dinner, \"Cafe\"")
+                .amount(250.5)
+                .date(LocalDate.of(2024, 3, 1))
+                .category("Food")
+                .build();
+    }
+
+    @Test
+    void export_csv_escapesFieldsAndWritesHeader() throws Exception {
+        when(transactionRepository.streamDtosByUserId(1L)).thenReturn(Stream.of(transaction));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(user, ExportFormat.CSV, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertEquals(1, rows);
+        assertEquals("id,date,description,amount,category,paymentMode\n" +
+                "7,2024-03-01,\"Dinner, \"\"Cafe\"\"\",250.5,Food,\n", csv);
+    }
+
+    @Test
+    void export_ndjson_writesOneObjectPerLine() throws Exception {
+        when(transactionRepository.streamDtosByUserId(1L)).thenReturn(Stream.of(transaction, transaction));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(user, ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"date\":\"2024-03-01\""));
+    }
+}
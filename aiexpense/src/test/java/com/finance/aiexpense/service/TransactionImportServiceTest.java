@@ -0,0 +1,150 @@
+package com.finance.aiexpense.service;
+
+import com.finance.aiexpense.dto.TransactionImportResult;
+import com.finance.aiexpense.dto.TransactionRequest;
+import com.finance.aiexpense.entity.LimitType;
+import com.finance.aiexpense.entity.User;
+import com.finance.aiexpense.exception.BadRequestException;
+import com.finance.aiexpense.exception.RateLimitExceededException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionImportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private UserCacheService userCacheService;
+
+    @Mock
+    private SpendingRollupService spendingRollupService;
+
+    @Mock
+    private QuotaService quotaService;
+
+    @Mock
+    private InsightService insightService;
+
+    @InjectMocks
+    private TransactionImportService importService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(importService, "chunkSize", 2);
+        user = User.builder().id(1L).email("test@example.com").build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importCsv_insertsInChunksAndReportsProgress() throws Exception {
+        String csv = "date,description,amount,category,paymentMode\n" +
+                "2024-01-01,Swiggy,250.00,Food,UPI\n" +
+                "2024-01-02,\"Rent, January\",15000,Utilities,\n" +
+                "2024-01-03,Uber,120.5,,Card\n";
+
+        TransactionImportResult result = importService.importCsv(stream(csv), user);
+
+        assertEquals(3, result.getTotalRows());
+        assertEquals(3, result.getImportedRows());
+        assertEquals(0, result.getSkippedRows());
+        assertEquals(2, result.getChunks().size());
+        assertEquals(3, result.getChunks().get(1).getImportedSoFar());
+
+        ArgumentCaptor<List<TransactionRequest>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), rows.capture(), anyInt(), any());
+        assertEquals(2, rows.getAllValues().get(0).size());
+        assertEquals("Rent, January", rows.getAllValues().get(0).get(1).getDescription());
+        assertEquals(LocalDate.of(2024, 1, 3), rows.getAllValues().get(1).get(0).getDate());
+        verify(spendingRollupService, times(2)).recordAddedBatch(eq(1L), anyList());
+        verify(userCacheService, times(1)).evictUser(1L, "import");
+        verify(insightService).markDirty(1L);
+        verify(quotaService).consume(user, LimitType.TRANSACTION, 2);
+        verify(quotaService).consume(user, LimitType.TRANSACTION, 1);
+    }
+
+    @Test
+    void importCsv_overQuota_stopsBeforeInserting() {
+        String csv = "date,description,amount\n" +
+                "2024-01-01,Swiggy,250\n";
+        doThrow(new RateLimitExceededException("Total transaction limit reached"))
+                .when(quotaService).consume(user, LimitType.TRANSACTION, 1);
+
+        assertThrows(RateLimitExceededException.class, () -> importService.importCsv(stream(csv), user));
+        verifyNoInteractions(jdbcTemplate, spendingRollupService, userCacheService);
+    }
+
+    @Test
+    void importCsv_skipsInvalidRowsWithLineNumbers() throws Exception {
+        String csv = "description,amount,date\n" +
+                "Coffee,abc,2024-01-01\n" +
+                "Lunch,-5,2024-01-01\n" +
+                "Dinner,300,2024-01-05\n";
+
+        TransactionImportResult result = importService.importCsv(stream(csv), user);
+
+        assertEquals(3, result.getTotalRows());
+        assertEquals(1, result.getImportedRows());
+        assertEquals(2, result.getSkippedRows());
+        assertTrue(result.getErrors().get(0).startsWith("Line 2:"));
+        assertTrue(result.getErrors().get(1).startsWith("Line 3:"));
+    }
+
+    @Test
+    void importCsv_overLongTextField_skipsOnlyThatRow() throws Exception {
+        String csv = "date,description,amount,category\n" +
+                "2024-01-01," + "x".repeat(256) + ",10,Food\n" +
+                "2024-01-02,Tea,20," + "c".repeat(256) + "\n" +
+                "2024-01-03," + "y".repeat(255) + ",30,Food\n";
+
+        TransactionImportResult result = importService.importCsv(stream(csv), user);
+
+        assertEquals(1, result.getImportedRows());
+        assertEquals(2, result.getSkippedRows());
+        assertEquals("Line 2: Description is longer than 255 characters", result.getErrors().get(0));
+        assertEquals("Line 3: Category is longer than 255 characters", result.getErrors().get(1));
+    }
+
+    @Test
+    void importCsv_missingRequiredColumn_throwsBadRequest() {
+        String csv = "description,amount\nCoffee,100\n";
+
+        assertThrows(BadRequestException.class, () -> importService.importCsv(stream(csv), user));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void importCsv_quotedFieldWithLineBreak_isSingleRow() throws Exception {
+        String csv = "date,description,amount\n" +
+                "2024-02-01,\"Multi\nline\",10\n";
+
+        TransactionImportResult result = importService.importCsv(stream(csv), user);
+
+        assertEquals(1, result.getImportedRows());
+        assertTrue(result.getErrors().isEmpty());
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
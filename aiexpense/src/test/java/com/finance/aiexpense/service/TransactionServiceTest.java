@@ -1,10 +1,14 @@
 package com.finance.aiexpense.service;
 
 import com.finance.aiexpense.dto.TransactionDTO;
+import com.finance.aiexpense.dto.TransactionPageDTO;
 import com.finance.aiexpense.dto.TransactionRequest;
+import com.finance.aiexpense.entity.LimitType;
 import com.finance.aiexpense.entity.Transaction;
 import com.finance.aiexpense.entity.User;
 import com.finance.aiexpense.enums.SubscriptionTier;
+import com.finance.aiexpense.exception.BadRequestException;
+import com.finance.aiexpense.exception.RateLimitExceededException;
 import com.finance.aiexpense.exception.ResourceNotFoundException;
 import com.finance.aiexpense.repository.TransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,7 +17,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -33,7 +37,16 @@ class TransactionServiceTest {
     private TransactionRepository transactionRepository;
 
     @Mock
-    private ModelMapper modelMapper;
+    private UserCacheService userCacheService;
+
+    @Mock
+    private SpendingRollupService spendingRollupService;
+
+    @Mock
+    private QuotaService quotaService;
+
+    @Mock
+    private InsightService insightService;
 
     @InjectMocks
     private TransactionService transactionService;
@@ -74,62 +87,117 @@ class TransactionServiceTest {
         transactionDTO.setAmount(100.0);
         transactionDTO.setDate(LocalDate.now());
         transactionDTO.setCategory("Groceries");
+        transactionDTO.setPaymentMode("Credit Card");
     }
 
     @Test
     void addTransaction_success() {
         when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
-        when(modelMapper.map(any(Transaction.class), eq(TransactionDTO.class))).thenReturn(transactionDTO);
 
         TransactionDTO result = transactionService.addTransaction(transactionRequest, user);
 
-        assertNotNull(result);
-        assertEquals(transactionDTO.getId(), result.getId());
+        assertEquals(transactionDTO, result);
+        verify(quotaService).consume(user, LimitType.TRANSACTION, 1);
         verify(transactionRepository).save(any(Transaction.class));
-        verify(modelMapper).map(any(Transaction.class), eq(TransactionDTO.class));
+        verify(spendingRollupService).recordAdded(1L, transaction.getDate(), "Groceries", 100.0);
+        verify(userCacheService).evictUser(1L, "add");
+        verify(insightService).markDirty(1L);
+    }
+
+    @Test
+    void addTransaction_overQuota_doesNotSave() {
+        doThrow(new RateLimitExceededException("Monthly transaction limit reached"))
+                .when(quotaService).consume(user, LimitType.TRANSACTION, 1);
+
+        assertThrows(RateLimitExceededException.class, () -> transactionService.addTransaction(transactionRequest, user));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verifyNoInteractions(spendingRollupService, userCacheService);
     }
 
     @Test
     void getAllTransactions_success() {
-        List<Transaction> transactions = Arrays.asList(transaction);
-        when(transactionRepository.findByUserOrderByDateDesc(user)).thenReturn(transactions);
-        when(modelMapper.map(any(Transaction.class), eq(TransactionDTO.class))).thenReturn(transactionDTO);
+        when(transactionRepository.findDtosByUserId(1L)).thenReturn(Arrays.asList(transactionDTO));
 
         List<TransactionDTO> result = transactionService.getAllTransactions(user);
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(transactionRepository).findByUserOrderByDateDesc(user);
+        verify(transactionRepository).findDtosByUserId(1L);
+    }
+
+    @Test
+    void getTransactionPage_firstPage_returnsCursorWhenMoreRowsExist() {
+        TransactionDTO older = TransactionDTO.builder().id(2L).description("Older")
+                .amount(10.0).date(LocalDate.of(2024, 1, 1)).build();
+        when(transactionRepository.findDtoPage(eq(1L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(transactionDTO, older));
+
+        TransactionPageDTO page = transactionService.getTransactionPage(user, null, 1);
+
+        assertEquals(List.of(transactionDTO), page.getTransactions());
+        assertTrue(page.isHasMore());
+        assertNotNull(page.getNextCursor());
+        verify(transactionRepository).findDtoPage(1L, Pageable.ofSize(2));
+    }
+
+    @Test
+    void getTransactionPage_withCursor_resumesAfterLastRow() {
+        when(transactionRepository.findDtoPage(eq(1L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(transactionDTO, transactionDTO));
+        String cursor = transactionService.getTransactionPage(user, null, 1).getNextCursor();
+
+        when(transactionRepository.findDtoPageAfter(eq(1L), any(LocalDate.class), any(Long.class), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+
+        TransactionPageDTO page = transactionService.getTransactionPage(user, cursor, 1);
+
+        assertTrue(page.getTransactions().isEmpty());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        verify(transactionRepository).findDtoPageAfter(eq(1L), eq(transactionDTO.getDate()), eq(1L), any(Pageable.class));
+    }
+
+    @Test
+    void getTransactionPage_capsPageSize() {
+        when(transactionRepository.findDtoPage(eq(1L), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+
+        TransactionPageDTO page = transactionService.getTransactionPage(user, null, 10_000);
+
+        assertEquals(TransactionService.MAX_PAGE_SIZE, page.getSize());
+        verify(transactionRepository).findDtoPage(1L, Pageable.ofSize(TransactionService.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void getTransactionPage_invalidCursor_throwsBadRequest() {
+        assertThrows(BadRequestException.class, () -> transactionService.getTransactionPage(user, "not-a-cursor", 10));
+        verifyNoInteractions(transactionRepository);
     }
 
     @Test
     void getRecentTransactions_success() {
-        List<Transaction> transactions = Arrays.asList(transaction);
-        when(transactionRepository.findByUserAndDateAfterOrderByDateDesc(any(User.class), any(LocalDate.class)))
-                .thenReturn(transactions);
-        when(modelMapper.map(any(Transaction.class), eq(TransactionDTO.class))).thenReturn(transactionDTO);
+        when(transactionRepository.findDtosByUserIdAndDateAfter(eq(1L), any(LocalDate.class)))
+                .thenReturn(Arrays.asList(transactionDTO));
 
         List<TransactionDTO> result = transactionService.getRecentTransactions(user, 3);
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(transactionRepository).findByUserAndDateAfterOrderByDateDesc(any(User.class), any(LocalDate.class));
+        verify(transactionRepository).findDtosByUserIdAndDateAfter(eq(1L), any(LocalDate.class));
     }
 
     @Test
     void getTransactionsByDateRange_success() {
         LocalDate startDate = LocalDate.now().minusDays(7);
         LocalDate endDate = LocalDate.now();
-        List<Transaction> transactions = Arrays.asList(transaction);
-        when(transactionRepository.findByUserAndDateBetweenOrderByDateDesc(any(User.class), any(LocalDate.class), any(LocalDate.class)))
-                .thenReturn(transactions);
-        when(modelMapper.map(any(Transaction.class), eq(TransactionDTO.class))).thenReturn(transactionDTO);
+        when(transactionRepository.findDtosByUserIdAndDateBetween(eq(1L), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(Arrays.asList(transactionDTO));
 
         List<TransactionDTO> result = transactionService.getTransactionsByDateRange(user, startDate, endDate);
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(transactionRepository).findByUserAndDateBetweenOrderByDateDesc(any(User.class), eq(startDate), eq(endDate));
+        verify(transactionRepository).findDtosByUserIdAndDateBetween(1L, startDate, endDate);
     }
 
     @Test
@@ -141,6 +209,10 @@ class TransactionServiceTest {
 
         verify(transactionRepository).findById(1L);
         verify(transactionRepository).delete(transaction);
+        verify(quotaService).release(eq(user), eq(LimitType.TRANSACTION), eq(1), any(LocalDate.class));
+        verify(spendingRollupService).recordRemoved(1L, transaction.getDate(), "Groceries", 100.0);
+        verify(userCacheService).evictUser(1L, "delete");
+        verify(insightService).markDirty(1L);
     }
 
     @Test
@@ -161,20 +233,23 @@ class TransactionServiceTest {
         assertThrows(RuntimeException.class, () -> transactionService.deleteTransaction(1L, user));
         verify(transactionRepository).findById(1L);
         verify(transactionRepository, never()).delete(any(Transaction.class));
+        verifyNoInteractions(userCacheService);
     }
 
     @Test
     void updateTransactionCategory_success() {
         when(transactionRepository.findById(1L)).thenReturn(Optional.of(transaction));
         when(transactionRepository.save(any(Transaction.class))).thenReturn(transaction);
-        when(modelMapper.map(any(Transaction.class), eq(TransactionDTO.class))).thenReturn(transactionDTO);
 
         TransactionDTO result = transactionService.updateTransactionCategory(1L, "Food", user);
 
-        assertNotNull(result);
+        assertEquals("Food", result.getCategory());
         verify(transactionRepository).findById(1L);
         verify(transactionRepository).save(transaction);
         assertEquals("Food", transaction.getCategory());
+        verify(spendingRollupService).recordCategoryChange(1L, transaction.getDate(), 100.0, "Groceries", "Food");
+        verify(userCacheService).evictUser(1L, "update");
+        verify(insightService).markDirty(1L);
     }
 
     @Test
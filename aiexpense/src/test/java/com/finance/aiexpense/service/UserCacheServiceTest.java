@@ -0,0 +1,55 @@
+package com.finance.aiexpense.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheServiceTest {
+
+    private ConcurrentMapCacheManager cacheManager;
+    private SimpleMeterRegistry meterRegistry;
+    private UserCacheService userCacheService;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager("transactions", "userStats", "reports");
+        meterRegistry = new SimpleMeterRegistry();
+        userCacheService = new UserCacheService(cacheManager, meterRegistry);
+    }
+
+    @Test
+    void evictUser_removesOnlyThatUsersEntries() {
+        cacheManager.getCache("transactions").put(1L, "user-1");
+        cacheManager.getCache("userStats").put(1L, "user-1");
+        cacheManager.getCache("reports").put(1L, "not user-scoped");
+        cacheManager.getCache("transactions").put(2L, "user-2");
+        cacheManager.getCache("userStats").put(2L, "user-2");
+
+        userCacheService.evictUser(1L, "add");
+
+        assertNull(cacheManager.getCache("transactions").get(1L));
+        assertNull(cacheManager.getCache("userStats").get(1L));
+        assertNotNull(cacheManager.getCache("reports").get(1L));
+        assertNotNull(cacheManager.getCache("transactions").get(2L));
+        assertNotNull(cacheManager.getCache("userStats").get(2L));
+    }
+
+    @Test
+    void evictUser_recordsEvictedKeyCount() {
+        cacheManager.getCache("transactions").put(1L, "user-1");
+        cacheManager.getCache("userStats").put(1L, "user-1");
+
+        userCacheService.evictUser(1L, "delete");
+
+        DistributionSummary summary = meterRegistry.find("cache.user.evicted.keys")
+                .tag("operation", "delete")
+                .summary();
+        assertNotNull(summary);
+        assertEquals(1, summary.count());
+        assertEquals(2.0, summary.totalAmount());
+    }
+}
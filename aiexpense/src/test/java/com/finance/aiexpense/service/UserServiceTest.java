@@ -3,10 +3,10 @@ package com.finance.aiexpense.service;
 import com.finance.aiexpense.entity.User;
 import com.finance.aiexpense.enums.SubscriptionTier;
 import com.finance.aiexpense.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -24,13 +24,17 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
     private UserService userService;
 
     private User user;
 
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userService = new UserService(userRepository, meterRegistry);
+        userService.init();
+
         user = User.builder()
                 .id(1L)
                 .email("test@example.com")
@@ -58,5 +62,51 @@ class UserServiceTest {
         assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername("nonexistent@example.com"));
         verify(userRepository).findByEmail("nonexistent@example.com");
     }
-}
 
+    @Test
+    void loadUserByUsername_servesRepeatLookupsFromCache() {
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+
+        User first = (User) userService.loadUserByUsername("test@example.com");
+        User second = (User) userService.loadUserByUsername("test@example.com");
+
+        verify(userRepository, times(1)).findByEmail("test@example.com");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "principals").tag("result", "hit")
+                .functionCounter().count());
+        // Each request gets its own copy, so a caller's edits do not leak into the cache
+        assertNotSame(first, second);
+        first.setSubscriptionTier(SubscriptionTier.PREMIUM);
+        assertEquals(SubscriptionTier.FREE,
+                ((User) userService.loadUserByUsername("test@example.com")).getSubscriptionTier());
+    }
+
+    @Test
+    void loadUserByUsername_doesNotCacheUnknownUsers() {
+        when(userRepository.findByEmail("new@example.com"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(user));
+
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername("new@example.com"));
+        assertNotNull(userService.loadUserByUsername("new@example.com"));
+    }
+
+    @Test
+    void evictPrincipal_reloadsUserOnNextLookup() {
+        User upgraded = User.builder()
+                .id(1L)
+                .email("test@example.com")
+                .password("password")
+                .subscriptionTier(SubscriptionTier.PREMIUM)
+                .build();
+        when(userRepository.findByEmail("test@example.com"))
+                .thenReturn(Optional.of(user))
+                .thenReturn(Optional.of(upgraded));
+
+        userService.loadUserByUsername("test@example.com");
+        userService.evictPrincipal("test@example.com");
+
+        assertEquals(SubscriptionTier.PREMIUM,
+                ((User) userService.loadUserByUsername("test@example.com")).getSubscriptionTier());
+        verify(userRepository, times(2)).findByEmail("test@example.com");
+    }
+}
@@ -0,0 +1,95 @@
+package com.finance.aiexpense.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>(Duration.ofSeconds(5));
+
+    @Test
+    void execute_concurrentCallersShareOneLoad() {
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.execute("k", () -> {
+            loads.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = singleFlight.execute("k", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+
+        assertEquals(1, singleFlight.inFlightCount());
+        upstream.complete("answer");
+
+        assertEquals("answer", first.join());
+        assertEquals("answer", second.join());
+        assertEquals(1, loads.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void execute_failureReachesAllWaitersAndIsNotRemembered() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.execute("k", () -> upstream);
+        CompletableFuture<String> second = singleFlight.execute("k", () -> upstream);
+
+        upstream.completeExceptionally(new IllegalStateException("boom"));
+
+        CompletionException error = assertThrows(CompletionException.class, first::join);
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertThrows(CompletionException.class, second::join);
+        assertEquals("retried", singleFlight.execute("k", () -> CompletableFuture.completedFuture("retried")).join());
+    }
+
+    @Test
+    void execute_synchronousLoaderExceptionFailsTheFuture() {
+        CompletableFuture<String> result = singleFlight.execute("k", () -> {
+            throw new IllegalArgumentException("bad prompt");
+        });
+
+        assertThrows(CompletionException.class, result::join);
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void execute_cancellingOneCallerDoesNotAffectOthers() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.execute("k", () -> upstream);
+        CompletableFuture<String> second = singleFlight.execute("k", () -> upstream);
+
+        first.cancel(true);
+        upstream.complete("answer");
+
+        assertTrue(first.isCancelled());
+        assertEquals("answer", second.join());
+    }
+
+    @Test
+    void execute_timesOutHungLoadAndReleasesKey() {
+        SingleFlight<String, String> shortFlight = new SingleFlight<>(Duration.ofMillis(50));
+        CompletableFuture<String> hung = shortFlight.execute("k", CompletableFuture::new);
+
+        CompletionException error = assertThrows(CompletionException.class, hung::join);
+        assertInstanceOf(TimeoutException.class, error.getCause());
+        assertEquals(0, shortFlight.inFlightCount());
+    }
+
+    @Test
+    void execute_differentKeysLoadIndependently() {
+        CompletableFuture<String> a = singleFlight.execute("a", () -> CompletableFuture.completedFuture("A"));
+        CompletableFuture<String> b = singleFlight.execute("b", () -> CompletableFuture.completedFuture("B"));
+
+        assertEquals("A", a.join());
+        assertEquals("B", b.join());
+    }
+}
@@ -77,7 +77,7 @@ const Dashboard = () => {
         try {
             setIsInsightLoading(true); // start loading
             const response = await aiAPI.getInsights();
-            setAiInsight(response.data.data || '');
+            setAiInsight(response.data.data?.insights || '');
         } catch (error) {
             console.error('Error fetching insights:', error);
         } finally {
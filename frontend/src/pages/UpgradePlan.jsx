@@ -11,6 +11,8 @@ const UpgradePlan = () => {
     const [selectedPlan, setSelectedPlan] = useState(null);
     const [loading, setLoading] = useState(false);
     const [showPaymentModal, setShowPaymentModal] = useState(false);
+    // One order attempt per plan selection; repeated clicks reuse its key instead of creating new orders
+    const [orderAttemptId, setOrderAttemptId] = useState(null);
 
     useEffect(() => {
         fetchPlans();
@@ -28,6 +30,7 @@ const UpgradePlan = () => {
     const handleSelectPlan = (plan) => {
         if (plan.name === 'FREE') return;
         setSelectedPlan(plan);
+        setOrderAttemptId(crypto.randomUUID());
         setShowPaymentModal(true);
     };
 
@@ -40,7 +43,7 @@ const UpgradePlan = () => {
                 paymentMethod: paymentMethod,
                 subscriptionTier: selectedPlan.name,
                 durationMonths: 1,
-            });
+            }, `${orderAttemptId}-${paymentMethod}`);
 
             const paymentData = response.data.data;
 
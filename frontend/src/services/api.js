@@ -23,8 +23,10 @@ export const paymentAPI = {
     // Get subscription plans
     getPlans: () => axiosInstance.get('/payments/plans'),
 
-    // Create payment order (returns checkout URL or Razorpay details)
-    createOrder: (data) => axiosInstance.post('/payments/create-order', data),
+    // Create payment order (returns checkout URL or Razorpay details); retries with the same key replay the first order
+    createOrder: (data, idempotencyKey) => axiosInstance.post('/payments/create-order', data, {
+        headers: idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : {},
+    }),
 
     // Verify payment after user completes checkout
     verifyPayment: (data) => axiosInstance.post('/payments/verify', data),